@@ -0,0 +1,344 @@
+package me.dags.config.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a me.dags.config.Binder for each type annotated with @Binding.
+ * Types whose @Setting fields or constructor cannot be reached from generated code in the same package
+ * are skipped with a warning, leaving them to be bound reflectively at runtime.
+ *
+ * @author dags <dags@dags.me>
+ */
+@SupportedAnnotationTypes(BinderProcessor.BINDING)
+public class BinderProcessor extends AbstractProcessor {
+
+    static final String BINDING = "me.dags.config.Binding";
+    static final String SETTING = "ninja.leaping.configurate.objectmapping.Setting";
+
+    private static final String NODE = "me.dags.config.Node";
+    private static final String BINDER = "me.dags.config.Binder";
+    private static final String TYPE_TOKEN = "com.google.common.reflect.TypeToken";
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        for (TypeElement annotation : annotations) {
+            for (TypeElement type : ElementFilter.typesIn(round.getElementsAnnotatedWith(annotation))) {
+                try {
+                    generate(type);
+                } catch (IOException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write binder: " + e.getMessage(), type);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement type) throws IOException {
+        String reason = unsupported(type);
+        if (reason != null) {
+            warn(type, reason);
+            return;
+        }
+
+        List<Field> fields = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        String pkg = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+        for (TypeElement t = type; t != null; t = superclass(t)) {
+            for (VariableElement element : ElementFilter.fieldsIn(t.getEnclosedElements())) {
+                AnnotationMirror setting = annotation(element, SETTING);
+                if (setting == null || element.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                reason = inaccessible(element, pkg);
+                if (reason == null && !names.add(element.getSimpleName().toString())) {
+                    reason = "it hides an inherited @Setting field";
+                }
+                if (reason == null && hasTypeVariable(element.asType())) {
+                    reason = "its type is generic";
+                }
+                if (reason != null) {
+                    warn(element, "Field " + element.getSimpleName() + " cannot be bound without reflection: " + reason);
+                    return;
+                }
+                fields.add(new Field(element, setting));
+            }
+        }
+
+        String name = binderName(type);
+        String target = type.getQualifiedName().toString();
+        String qualified = pkg.isEmpty() ? name : pkg + "." + name;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualified, type);
+        try (Writer writer = file.openWriter()) {
+            writer.write(source(pkg, name, target, fields));
+        }
+    }
+
+    private String source(String pkg, String name, String target, List<Field> fields) {
+        StringBuilder out = new StringBuilder();
+        if (!pkg.isEmpty()) {
+            out.append("package ").append(pkg).append(";\n\n");
+        }
+        out.append("/**\n * Generated by ").append(BinderProcessor.class.getName()).append(" for ").append(target).append("\n */\n");
+        out.append("public final class ").append(name).append(" implements ").append(BINDER).append('<').append(target).append("> {\n\n");
+
+        for (Field field : fields) {
+            if (field.token) {
+                String token = TYPE_TOKEN + '<' + field.type + '>';
+                out.append("    private static final ").append(token).append(' ').append(field.constant())
+                        .append(" = new ").append(token).append("() {};\n");
+            }
+        }
+        if (fields.stream().anyMatch(f -> f.token)) {
+            out.append('\n');
+        }
+
+        out.append("    @Override\n");
+        out.append("    public ").append(target).append(" fromNode(").append(NODE).append(" node) {\n");
+        out.append("        ").append(target).append(" instance = new ").append(target).append("();\n");
+        if (!fields.isEmpty()) {
+            out.append("        ").append(NODE).append(" child;\n");
+        }
+        for (Field field : fields) {
+            out.append('\n');
+            out.append("        child = node.node(").append(literal(field.key)).append(");\n");
+            out.append("        if (child.isVirtual()) {\n");
+            String indent = "            ";
+            if (!field.primitive) {
+                out.append(indent).append("if (instance.").append(field.name).append(" != null) {\n");
+                indent = "                ";
+            }
+            out.append(indent).append(field.write()).append('\n');
+            if (!field.comment.isEmpty()) {
+                out.append(indent).append("child.comment(").append(literal(field.comment)).append(");\n");
+            }
+            if (!field.primitive) {
+                out.append("            }\n");
+            }
+            out.append("        } else {\n");
+            out.append("            ").append(field.read()).append('\n');
+            out.append("        }\n");
+        }
+        out.append('\n');
+        out.append("        return instance;\n");
+        out.append("    }\n\n");
+
+        out.append("    @Override\n");
+        out.append("    public void toNode(").append(target).append(" instance, ").append(NODE).append(" node) {\n");
+        if (!fields.isEmpty()) {
+            out.append("        ").append(NODE).append(" child;\n");
+        }
+        for (Field field : fields) {
+            out.append('\n');
+            out.append("        child = node.node(").append(literal(field.key)).append(");\n");
+            out.append("        ").append(field.write()).append('\n');
+            if (!field.comment.isEmpty()) {
+                out.append("        if (child.comment().isEmpty()) {\n");
+                out.append("            child.comment(").append(literal(field.comment)).append(");\n");
+                out.append("        }\n");
+            }
+        }
+        out.append("    }\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private String unsupported(TypeElement type) {
+        if (type.getKind() != ElementKind.CLASS) {
+            return "@Binding is only supported on classes";
+        }
+        Set<Modifier> modifiers = type.getModifiers();
+        if (modifiers.contains(Modifier.ABSTRACT)) {
+            return "Cannot generate a binder for abstract class " + type;
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            return "Cannot generate a binder for generic class " + type;
+        }
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE)) {
+                return "Cannot generate a binder for private class " + e;
+            }
+            if (e.getEnclosingElement() instanceof TypeElement && !e.getModifiers().contains(Modifier.STATIC)) {
+                return "Cannot generate a binder for inner class " + e + " (it must be static)";
+            }
+        }
+        for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty() && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return null;
+            }
+        }
+        return "Cannot generate a binder for " + type + " as it has no non-private zero-arg constructor";
+    }
+
+    private String inaccessible(VariableElement field, String pkg) {
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return "it is private";
+        }
+        if (modifiers.contains(Modifier.FINAL)) {
+            return "it is final";
+        }
+        if (!modifiers.contains(Modifier.PUBLIC)) {
+            String owner = processingEnv.getElementUtils().getPackageOf(field).getQualifiedName().toString();
+            if (!owner.equals(pkg)) {
+                return "it is declared in another package and is not public";
+            }
+        }
+        return null;
+    }
+
+    private TypeElement superclass(TypeElement type) {
+        TypeMirror parent = type.getSuperclass();
+        if (parent.getKind() != TypeKind.DECLARED) {
+            return null;
+        }
+        TypeElement element = (TypeElement) ((DeclaredType) parent).asElement();
+        return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+    }
+
+    private String binderName(TypeElement type) {
+        String binary = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String simple = binary.substring(binary.lastIndexOf('.') + 1);
+        return simple.replace('$', '_') + "_Binder";
+    }
+
+    private void warn(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+
+    private static AnnotationMirror annotation(Element element, String name) {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(name)) {
+                return mirror;
+            }
+        }
+        return null;
+    }
+
+    private static String value(AnnotationMirror mirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : mirror.getElementValues().entrySet()) {
+            if (e.getKey().getSimpleName().contentEquals(name)) {
+                return e.getValue().getValue().toString();
+            }
+        }
+        return "";
+    }
+
+    private static boolean hasTypeVariable(TypeMirror type) {
+        switch (type.getKind()) {
+            case TYPEVAR:
+            case ERROR:
+                return true;
+            case ARRAY:
+                return hasTypeVariable(((ArrayType) type).getComponentType());
+            case WILDCARD:
+                WildcardType wildcard = (WildcardType) type;
+                return (wildcard.getExtendsBound() != null && hasTypeVariable(wildcard.getExtendsBound()))
+                        || (wildcard.getSuperBound() != null && hasTypeVariable(wildcard.getSuperBound()));
+            case DECLARED:
+                for (TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+                    if (hasTypeVariable(argument)) {
+                        return true;
+                    }
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    private static String literal(String value) {
+        StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    private final class Field {
+
+        private final String name;
+        private final String key;
+        private final String comment;
+        private final String type;
+        private final boolean primitive;
+        private final boolean token;
+
+        private Field(VariableElement element, AnnotationMirror setting) {
+            String key = value(setting, "value");
+            TypeMirror type = element.asType();
+            TypeKind kind = type.getKind();
+            this.name = element.getSimpleName().toString();
+            this.key = key.isEmpty() ? name : key;
+            this.comment = value(setting, "comment");
+            this.primitive = kind.isPrimitive();
+            if (primitive) {
+                // Node has typed accessors for these, other primitives go through their boxed TypeSerializer
+                boolean direct = kind == TypeKind.BOOLEAN || kind == TypeKind.INT || kind == TypeKind.LONG
+                        || kind == TypeKind.FLOAT || kind == TypeKind.DOUBLE;
+                this.token = !direct;
+                this.type = direct ? type.toString() : processingEnv.getTypeUtils().boxedClass((PrimitiveType) type).getQualifiedName().toString();
+            } else {
+                this.token = !type.toString().equals("java.lang.String");
+                this.type = type.toString();
+            }
+        }
+
+        private String constant() {
+            return "TYPE_" + name;
+        }
+
+        private String read() {
+            if (token) {
+                return "instance." + name + " = child.get(" + constant() + ", instance." + name + ");";
+            }
+            return "instance." + name + " = child.get(instance." + name + ");";
+        }
+
+        private String write() {
+            if (token) {
+                return "child.set(" + constant() + ", instance." + name + ");";
+            }
+            return "child.set((Object) instance." + name + ");";
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package me.dags.config.bench;
+
+import me.dags.config.Config;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Bulk loading a directory of small files
+ *
+ * @author dags <dags@dags.me>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AllBenchmark {
+
+    @Param({"100", "1000"})
+    public int files;
+
+    private Path dir;
+
+    @Setup
+    public void setup() {
+        dir = Fixtures.writeAll(Fixtures.tempDir("all"), files, 1024L);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.delete(dir);
+    }
+
+    @Benchmark
+    public Object allSerial() {
+        try (Stream<Config> stream = Config.all(dir, ".conf")) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+
+    @Benchmark
+    public Object allParallel() {
+        try (Stream<Config> stream = Config.all(dir, ".conf", Runtime.getRuntime().availableProcessors())) {
+            return stream.collect(Collectors.toList());
+        }
+    }
+}
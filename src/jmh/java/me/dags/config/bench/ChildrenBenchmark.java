@@ -0,0 +1,79 @@
+package me.dags.config.bench;
+
+import me.dags.config.Node;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Walking and building wide nodes
+ *
+ * @author dags <dags@dags.me>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChildrenBenchmark {
+
+    @Param({"100", "10000"})
+    public int width;
+
+    private Node map;
+    private Node list;
+    private Map<Object, Object> values;
+    private List<Object> elements;
+
+    @Setup
+    public void setup() {
+        values = new LinkedHashMap<>();
+        elements = new ArrayList<>();
+        for (int i = 0; i < width; i++) {
+            values.put("key-" + i, i);
+            elements.add(i);
+        }
+        map = Node.create().set(values);
+        list = Node.create().set(elements);
+    }
+
+    @Benchmark
+    public Object childMap() {
+        return map.childMap();
+    }
+
+    @Benchmark
+    public Object childList() {
+        return list.childList();
+    }
+
+    @Benchmark
+    public Object getMap() {
+        return map.getMap(node -> node.get(0));
+    }
+
+    @Benchmark
+    public Object getList() {
+        return list.getList(node -> node.get(0));
+    }
+
+    @Benchmark
+    public void iterate(Blackhole blackhole) {
+        map.iterate((key, node) -> blackhole.consume(node.get(0)));
+    }
+
+    @Benchmark
+    public void visit(Blackhole blackhole) {
+        map.visit((key, node) -> blackhole.consume(node.get(0)));
+    }
+
+    @Benchmark
+    public Node setMap() {
+        return Node.create().set(values);
+    }
+
+    @Benchmark
+    public Node setList() {
+        return Node.create().set(elements);
+    }
+}
@@ -0,0 +1,110 @@
+package me.dags.config.bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Generates HOCON fixtures shaped like typical plugin data (sections of mixed scalar values, lists and comments)
+ *
+ * @author dags <dags@dags.me>
+ */
+final class Fixtures {
+
+    private Fixtures() {
+
+    }
+
+    /**
+     * Parse a size such as "1KB", "1MB" or "50MB" into bytes
+     */
+    static long bytes(String size) {
+        String value = size.toUpperCase();
+        if (value.endsWith("MB")) {
+            return Long.parseLong(value.substring(0, value.length() - 2)) * 1024L * 1024L;
+        }
+        if (value.endsWith("KB")) {
+            return Long.parseLong(value.substring(0, value.length() - 2)) * 1024L;
+        }
+        return Long.parseLong(value);
+    }
+
+    /**
+     * Write a HOCON file of roughly the given size in bytes
+     */
+    static Path write(Path path, long size) {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            long written = 0;
+            for (int i = 0; written < size; i++) {
+                String section = section(i);
+                writer.write(section);
+                written += section.length();
+            }
+            return path;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write 'count' small HOCON files named 'file-<n>.conf' to the directory
+     */
+    static Path writeAll(Path dir, int count, long size) {
+        for (int i = 0; i < count; i++) {
+            write(dir.resolve("file-" + i + ".conf"), size);
+        }
+        return dir;
+    }
+
+    /**
+     * Create a temporary directory for a benchmark's fixtures
+     */
+    static Path tempDir(String name) {
+        try {
+            return Files.createTempDirectory("config-bench-" + name);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Delete a fixture directory and its contents
+     */
+    static void delete(Path dir) {
+        try {
+            Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path d, IOException e) throws IOException {
+                    Files.delete(d);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String section(int i) {
+        return "# entry " + i + "\n"
+                + "section-" + i + " {\n"
+                + "  name = \"entry-" + i + "\"\n"
+                + "  value = " + i + "\n"
+                + "  ratio = " + (i % 100) / 100D + "\n"
+                + "  enabled = " + (i % 2 == 0) + "\n"
+                + "  mode = " + (i % 3 == 0 ? "FAST" : "SLOW") + "\n"
+                + "  tags = [alpha, beta, gamma]\n"
+                + "}\n";
+    }
+}
@@ -0,0 +1,34 @@
+package me.dags.config.bench;
+
+import me.dags.config.Binding;
+import ninja.leaping.configurate.objectmapping.Setting;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The same settings as Settings, bound through a binder generated by the annotation processor
+ *
+ * @author dags <dags@dags.me>
+ */
+@Binding
+public class GeneratedSettings {
+
+    @Setting
+    String name = "entry";
+
+    @Setting
+    int value = 0;
+
+    @Setting
+    double ratio = 0.5;
+
+    @Setting
+    boolean enabled = true;
+
+    @Setting
+    String mode = "FAST";
+
+    @Setting
+    List<String> tags = Arrays.asList("alpha", "beta", "gamma");
+}
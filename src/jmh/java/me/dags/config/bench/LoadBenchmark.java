@@ -0,0 +1,40 @@
+package me.dags.config.bench;
+
+import me.dags.config.Config;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing a single file of varying size
+ *
+ * @author dags <dags@dags.me>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LoadBenchmark {
+
+    @Param({"1KB", "1MB", "50MB"})
+    public String size;
+
+    private Path dir;
+    private Path file;
+
+    @Setup
+    public void setup() {
+        dir = Fixtures.tempDir("load");
+        file = Fixtures.write(dir.resolve("single.conf"), Fixtures.bytes(size));
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.delete(dir);
+    }
+
+    @Benchmark
+    public Config must() {
+        return Config.must(file);
+    }
+}
@@ -0,0 +1,56 @@
+package me.dags.config.bench;
+
+import me.dags.config.Node;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deep lookups by dotted path vs chained node(...) calls at increasing depths
+ *
+ * @author dags <dags@dags.me>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PathBenchmark {
+
+    @Param({"1", "4", "16"})
+    public int depth;
+
+    private Node root;
+    private String[] segments;
+    private String path;
+
+    @Setup
+    public void setup() {
+        root = Node.create();
+        segments = new String[depth];
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            segments[i] = "level-" + i;
+            builder.append(segments[i]).append('.');
+        }
+        path = builder.append("value").toString();
+        Node node = root;
+        for (String segment : segments) {
+            node.set("sibling", 0);
+            node = node.node(segment);
+        }
+        node.set("value", 42);
+    }
+
+    @Benchmark
+    public int dotted() {
+        return root.get(path, 0);
+    }
+
+    @Benchmark
+    public int chained() {
+        Node node = root;
+        for (String segment : segments) {
+            node = node.node(segment);
+        }
+        return node.get("value", 0);
+    }
+}
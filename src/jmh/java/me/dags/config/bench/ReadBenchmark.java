@@ -0,0 +1,78 @@
+package me.dags.config.bench;
+
+import me.dags.config.Config;
+import me.dags.config.IntKey;
+import me.dags.config.Node;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading values by reflective and generated binding vs direct lookups, single threaded and contended
+ *
+ * @author dags <dags@dags.me>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadBenchmark {
+
+    private Path dir;
+    private Node section;
+    private IntKey key;
+
+    @Setup
+    public void setup() {
+        dir = Fixtures.tempDir("read");
+        Config config = Config.must(Fixtures.write(dir.resolve("read.conf"), 64L * 1024L));
+        section = config.node("section-42");
+        key = section.key("value", 0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.delete(dir);
+    }
+
+    @Benchmark
+    public Settings bind() {
+        return section.bind(Settings.class, (Settings) null);
+    }
+
+    @Benchmark
+    public GeneratedSettings bindGenerated() {
+        return section.bind(GeneratedSettings.class, (GeneratedSettings) null);
+    }
+
+    @Benchmark
+    public void get(Blackhole blackhole) {
+        blackhole.consume(section.get("name", ""));
+        blackhole.consume(section.get("value", 0));
+        blackhole.consume(section.get("ratio", 0D));
+        blackhole.consume(section.get("enabled", false));
+    }
+
+    @Benchmark
+    public int getInt() {
+        return section.get("value", 0);
+    }
+
+    @Benchmark
+    public int intKey() {
+        return key.get();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int getIntContended() {
+        return section.get("value", 0);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Node backingContended() {
+        return section.node("tags");
+    }
+}
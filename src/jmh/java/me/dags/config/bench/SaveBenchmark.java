@@ -0,0 +1,42 @@
+package me.dags.config.bench;
+
+import me.dags.config.Config;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializing and writing a config of varying size
+ *
+ * @author dags <dags@dags.me>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SaveBenchmark {
+
+    @Param({"1KB", "1MB", "50MB"})
+    public String size;
+
+    private Path dir;
+    private Config config;
+
+    @Setup
+    public void setup() {
+        dir = Fixtures.tempDir("save");
+        config = Config.must(Fixtures.write(dir.resolve("save.conf"), Fixtures.bytes(size)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        Fixtures.delete(dir);
+    }
+
+    @Benchmark
+    public boolean save() {
+        // save() skips clean configs, so mark it modified to measure a full serialize and write
+        config.markDirty();
+        return config.save();
+    }
+}
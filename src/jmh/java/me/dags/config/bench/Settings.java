@@ -0,0 +1,34 @@
+package me.dags.config.bench;
+
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A typical settings class bound by the benchmarks
+ *
+ * @author dags <dags@dags.me>
+ */
+@ConfigSerializable
+public class Settings {
+
+    @Setting
+    String name = "entry";
+
+    @Setting
+    int value = 0;
+
+    @Setting
+    double ratio = 0.5;
+
+    @Setting
+    boolean enabled = true;
+
+    @Setting
+    String mode = "FAST";
+
+    @Setting
+    List<String> tags = Arrays.asList("alpha", "beta", "gamma");
+}
@@ -0,0 +1,123 @@
+package me.dags.config;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Coalesces asynchronous saves so that each path has at most one pending write.
+ * Writes are performed on the BlockingIO executor once their delay has elapsed.
+ * Saves requested while a write is pending share its result, and the write
+ * serializes whatever state the config holds at the time it runs.
+ *
+ * @author dags <dags@dags.me>
+ */
+final class AsyncWriter {
+
+    static final long DEFAULT_DELAY_MS = 250L;
+
+    private static final Map<Path, Pending> pending = new ConcurrentHashMap<>();
+    // every scheduled write whose future has not completed, whether still pending or already running
+    private static final Set<Pending> unfinished = ConcurrentHashMap.newKeySet();
+    private static final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "config-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(AsyncWriter::flush, "config-writer-flush"));
+    }
+
+    private AsyncWriter() {
+
+    }
+
+    /**
+     * Schedule the config to be saved after the given delay, or join the write already pending for its path
+     */
+    static CompletableFuture<Boolean> submit(Config config, long delay, TimeUnit unit) {
+        Pending next = new Pending(config);
+        Pending current = pending.putIfAbsent(config.path(), next);
+        if (current != null && current.config == config) {
+            return current.future;
+        }
+        if (current != null) {
+            // a different instance for the same path: latest state wins
+            pending.put(config.path(), next);
+            current.future.complete(false);
+            current.cancel();
+        }
+        next.track();
+        next.schedule(delay, unit);
+        return next.future;
+    }
+
+    /**
+     * Write all pending saves immediately on the calling thread, and wait for any writes already in progress
+     */
+    static void flush() {
+        for (Pending write : new ArrayList<>(pending.values())) {
+            write.cancel();
+            write.run();
+        }
+        for (Pending write : new ArrayList<>(unfinished)) {
+            try {
+                write.future.join();
+            } catch (CompletionException | CancellationException ignored) {
+            }
+        }
+    }
+
+    private static final class Pending implements Runnable {
+
+        private final Config config;
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+        private volatile ScheduledFuture<?> task;
+
+        private Pending(Config config) {
+            this.config = config;
+        }
+
+        private void track() {
+            unfinished.add(this);
+            // runs immediately if the write has already completed
+            future.whenComplete((saved, error) -> unfinished.remove(this));
+        }
+
+        private void schedule(long delay, TimeUnit unit) {
+            // the scheduler thread only hands the write off so slow disks don't hold up other paths
+            task = executor.schedule(this::dispatch, delay, unit);
+        }
+
+        private void dispatch() {
+            try {
+                BlockingIO.execute(this);
+            } catch (RejectedExecutionException e) {
+                run();
+            }
+        }
+
+        private void cancel() {
+            ScheduledFuture<?> task = this.task;
+            if (task != null) {
+                task.cancel(false);
+            }
+        }
+
+        @Override
+        public void run() {
+            // remove first so saves requested during the write schedule a new one
+            if (!pending.remove(config.path(), this)) {
+                return;
+            }
+            try {
+                future.complete(config.save());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package me.dags.config;
+
+import ninja.leaping.configurate.ConfigurationNode;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary encoding of a configuration node tree
+ *
+ * @author dags <dags@dags.me>
+ */
+final class Binary {
+
+    private static final int NULL = 0;
+    private static final int MAP = 1;
+    private static final int LIST = 2;
+    private static final int STRING = 3;
+    private static final int INT = 4;
+    private static final int LONG = 5;
+    private static final int DOUBLE = 6;
+    private static final int FLOAT = 7;
+    private static final int TRUE = 8;
+    private static final int FALSE = 9;
+    private static final int COMMENTED = 0x80;
+
+    private Binary() {
+
+    }
+
+    /**
+     * Encode the node and its children
+     */
+    static void write(DataOutput out, ConfigurationNode node) throws IOException {
+        String comment = null;
+        if (node instanceof CommentedConfigurationNode) {
+            comment = ((CommentedConfigurationNode) node).getComment().orElse(null);
+        }
+
+        int flag = comment != null ? COMMENTED : 0;
+        if (node.hasMapChildren()) {
+            Map<Object, ? extends ConfigurationNode> children = node.getChildrenMap();
+            out.writeByte(MAP | flag);
+            writeComment(out, comment);
+            out.writeInt(children.size());
+            for (Map.Entry<Object, ? extends ConfigurationNode> e : children.entrySet()) {
+                writeString(out, e.getKey().toString());
+                write(out, e.getValue());
+            }
+            return;
+        }
+
+        if (node.hasListChildren()) {
+            List<? extends ConfigurationNode> children = node.getChildrenList();
+            out.writeByte(LIST | flag);
+            writeComment(out, comment);
+            out.writeInt(children.size());
+            for (ConfigurationNode child : children) {
+                write(out, child);
+            }
+            return;
+        }
+
+        Object value = node.getValue();
+        if (value == null) {
+            out.writeByte(NULL | flag);
+            writeComment(out, comment);
+        } else if (value instanceof Map) {
+            out.writeByte(MAP | flag);
+            writeComment(out, comment);
+            out.writeInt(0);
+        } else if (value instanceof List) {
+            out.writeByte(LIST | flag);
+            writeComment(out, comment);
+            out.writeInt(0);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(INT | flag);
+            writeComment(out, comment);
+            out.writeInt(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            out.writeByte(LONG | flag);
+            writeComment(out, comment);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE | flag);
+            writeComment(out, comment);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT | flag);
+            writeComment(out, comment);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(((Boolean) value ? TRUE : FALSE) | flag);
+            writeComment(out, comment);
+        } else {
+            out.writeByte(STRING | flag);
+            writeComment(out, comment);
+            writeString(out, value.toString());
+        }
+    }
+
+    /**
+     * Decode a node tree from the buffer into the given node
+     */
+    static void read(ByteBuffer in, CommentedConfigurationNode node) throws IOException {
+        int tag = in.get() & 0xFF;
+        if ((tag & COMMENTED) != 0) {
+            node.setComment(readString(in));
+        }
+
+        switch (tag & ~COMMENTED) {
+            case NULL:
+                return;
+            case MAP: {
+                int size = in.getInt();
+                if (size == 0) {
+                    node.setValue(Collections.emptyMap());
+                    return;
+                }
+                for (int i = 0; i < size; i++) {
+                    String key = readString(in);
+                    read(in, node.getNode(key));
+                }
+                return;
+            }
+            case LIST: {
+                int size = in.getInt();
+                if (size == 0) {
+                    node.setValue(Collections.emptyList());
+                    return;
+                }
+                for (int i = 0; i < size; i++) {
+                    read(in, node.getAppendedNode());
+                }
+                return;
+            }
+            case STRING:
+                node.setValue(readString(in));
+                return;
+            case INT:
+                node.setValue(in.getInt());
+                return;
+            case LONG:
+                node.setValue(in.getLong());
+                return;
+            case DOUBLE:
+                node.setValue(in.getDouble());
+                return;
+            case FLOAT:
+                node.setValue(in.getFloat());
+                return;
+            case TRUE:
+                node.setValue(true);
+                return;
+            case FALSE:
+                node.setValue(false);
+                return;
+            default:
+                throw new IOException("Unknown tag " + tag);
+        }
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeComment(DataOutput out, String comment) throws IOException {
+        if (comment != null) {
+            writeString(out, comment);
+        }
+    }
+}
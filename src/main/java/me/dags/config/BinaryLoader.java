@@ -0,0 +1,67 @@
+package me.dags.config;
+
+import ninja.leaping.configurate.ConfigurationNode;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads and saves the compact binary node encoding
+ *
+ * @author dags <dags@dags.me>
+ */
+final class BinaryLoader extends FileLoader {
+
+    private static final int MAGIC = 0x43464742;
+    private static final int VERSION = 1;
+
+    BinaryLoader(Path source, Path sink) {
+        super(source, sink);
+    }
+
+    @Override
+    void read(Path source, CommentedConfigurationNode root) throws IOException {
+        // read onto the heap rather than mapping: a live mapping blocks replacing the file on some platforms
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(source));
+        if (buffer.remaining() < 5 || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+            throw new UnrecognisedException("Not a binary config: " + source);
+        }
+        try {
+            Binary.read(buffer, root);
+        } catch (RuntimeException e) {
+            throw new IOException("Malformed binary config: " + source, e);
+        }
+    }
+
+    @Override
+    boolean isLegacy(IOException error) {
+        return error instanceof UnrecognisedException;
+    }
+
+    @Override
+    void write(ConfigurationNode root, Path sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(sink, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            Binary.write(out, root);
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    private static final class UnrecognisedException extends IOException {
+
+        private UnrecognisedException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package me.dags.config;
+
+/**
+ * Reads and writes the @Setting fields of a type without reflection.
+ * Implementations are generated at compile time by the config annotation processor for types
+ * annotated with @Binding, and are preferred over the reflective mapper by Node.bind and Node.copy.
+ *
+ * @author dags <dags@dags.me>
+ */
+public interface Binder<T> extends Node.Deserializable<T> {
+
+    /**
+     * Returns a new instance of T populated with values from the Node.
+     * Values absent from the Node are set to the instance's defaults.
+     *
+     * @param node the Node to populate T from
+     * @return the new instance of T
+     */
+    @Override
+    T fromNode(Node node);
+
+    /**
+     * Populates the Node with the values held by the instance
+     *
+     * @param instance the instance to read values from
+     * @param node the Node to populate
+     */
+    void toNode(T instance, Node node);
+}
@@ -0,0 +1,19 @@
+package me.dags.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a type for which the config annotation processor should generate a Binder.
+ * The generated class is named after the type with a '_Binder' suffix (nested types are joined by '_',
+ * ie Outer_Inner_Binder) and is placed in the same package.
+ * If no generated binder is found at runtime the type is bound reflectively.
+ *
+ * @author dags <dags@dags.me>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Binding {
+}
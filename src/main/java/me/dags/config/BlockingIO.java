@@ -0,0 +1,70 @@
+package me.dags.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * The executor that asynchronous loads, reloads and saves run their blocking file IO on.
+ * Uses a virtual thread per task where the runtime supports them (JDK 21+), otherwise a bounded pool
+ * of daemon platform threads.
+ *
+ * @author dags <dags@dags.me>
+ */
+final class BlockingIO {
+
+    private static final int MAX_PLATFORM_THREADS = Math.max(4, Math.min(64, Runtime.getRuntime().availableProcessors() * 4));
+
+    private static volatile Executor executor = defaultExecutor();
+
+    private BlockingIO() {
+
+    }
+
+    /**
+     * Run the blocking task on the IO executor
+     */
+    static <T> CompletableFuture<T> supply(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    /**
+     * Run the blocking task on the IO executor
+     */
+    static void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Replace the IO executor, or restore the default if null
+     */
+    static void setExecutor(Executor executor) {
+        BlockingIO.executor = executor == null ? defaultExecutor() : executor;
+    }
+
+    private static Executor defaultExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (Executor) factory.invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return platformExecutor();
+        }
+    }
+
+    private static Executor platformExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                MAX_PLATFORM_THREADS, MAX_PLATFORM_THREADS,
+                30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "config-io-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+}
@@ -0,0 +1,45 @@
+package me.dags.config;
+
+/**
+ * A cached boolean value read from a named child of a Node
+ *
+ * @author dags <dags@dags.me>
+ */
+public final class BooleanKey extends Key {
+
+    private final boolean def;
+    private volatile Value current;
+
+    BooleanKey(Node parent, String key, boolean def) {
+        super(parent, key);
+        this.def = def;
+    }
+
+    /**
+     * Get the current value
+     */
+    public boolean get() {
+        Value value = current;
+        long changes = changes();
+        if (value == null || value.changes != changes) {
+            current = value = new Value(changes, node().get(def));
+        }
+        return value.value;
+    }
+
+    @Override
+    public String toString() {
+        return key() + "=" + get();
+    }
+
+    private static final class Value {
+
+        private final long changes;
+        private final boolean value;
+
+        private Value(long changes, boolean value) {
+            this.changes = changes;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package me.dags.config;
+
+import java.util.*;
+
+/**
+ * The set of node paths affected by a change to a Node tree.
+ * Paths are absolute, starting from the root of the tree.
+ *
+ * @author dags <dags@dags.me>
+ */
+public final class ChangeSet implements Iterable<Object[]> {
+
+    static final ChangeSet EMPTY = new ChangeSet(Collections.emptyList());
+
+    private final List<Object[]> paths;
+
+    ChangeSet(List<Object[]> paths) {
+        this.paths = Collections.unmodifiableList(paths);
+    }
+
+    /**
+     * The changed paths
+     */
+    public List<Object[]> paths() {
+        return paths;
+    }
+
+    /**
+     * Check if no paths were changed
+     */
+    public boolean isEmpty() {
+        return paths.isEmpty();
+    }
+
+    /**
+     * The number of changed paths
+     */
+    public int size() {
+        return paths.size();
+    }
+
+    /**
+     * Check if the node at the given path, or any of its parents or children, was changed
+     */
+    public boolean affects(Object... path) {
+        for (Object[] changed : paths) {
+            if (overlaps(changed, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Iterator<Object[]> iterator() {
+        return paths.iterator();
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "[", "]");
+        for (Object[] path : paths) {
+            joiner.add(Arrays.toString(path));
+        }
+        return joiner.toString();
+    }
+
+    /**
+     * Check if one path is a prefix of the other
+     */
+    static boolean overlaps(Object[] a, Object[] b) {
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            if (!Objects.equals(a[i], b[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -2,29 +2,43 @@ package me.dags.config;
 
 import ninja.leaping.configurate.ConfigurationNode;
 import ninja.leaping.configurate.commented.CommentedConfigurationNode;
-import ninja.leaping.configurate.hocon.HoconConfigurationLoader;
 import ninja.leaping.configurate.loader.ConfigurationLoader;
-import ninja.leaping.configurate.util.MapFactories;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
 import java.nio.file.*;
-import java.util.Objects;
-import java.util.concurrent.Callable;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @author dags <dags@dags.me>
  */
 public class Config extends Node {
 
+    private final Format format;
     private final ConfigurationLoader<CommentedConfigurationNode> loader;
     private final Path path;
+    // a lock rather than a monitor so virtual threads blocked on file IO don't pin their carrier
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean backup = false;
+    private volatile LazyHocon lazy = null;
+    private volatile Frozen frozen = null;
 
-    private Config(ConfigurationLoader<CommentedConfigurationNode> loader, CommentedConfigurationNode root, Path path) {
+    private Config(Format format, ConfigurationLoader<CommentedConfigurationNode> loader, CommentedConfigurationNode root, Path path) {
         super(root);
+        this.format = format;
         this.loader = loader;
         this.path = path;
     }
@@ -44,19 +58,256 @@ public class Config extends Node {
     }
 
     /**
-     * Load a new instance of the config from disk
+     * Get the ConfigurationNode backing this config.
+     * For lazily loaded configs this converts any entries that have not yet been accessed.
+     */
+    @Override
+    public CommentedConfigurationNode backing() {
+        CommentedConfigurationNode root = super.backing();
+        LazyHocon lazy = this.lazy;
+        if (lazy != null) {
+            lazy.loadAll(root);
+            this.lazy = null;
+        }
+        return root;
+    }
+
+    @Override
+    CommentedConfigurationNode resolve(Object key) {
+        LazyHocon lazy = this.lazy;
+        if (lazy != null) {
+            lazy.load(super.backing(), key);
+        }
+        return super.resolve(key);
+    }
+
+    @Override
+    CommentedConfigurationNode resolve(Object... path) {
+        CommentedConfigurationNode root = super.backing();
+        LazyHocon lazy = this.lazy;
+        if (lazy != null && path.length > 0) {
+            lazy.load(root, path[0]);
+        }
+        return root.getNode(path);
+    }
+
+    /**
+     * Get an immutable snapshot of the config's values.
+     * The snapshot is rebuilt on the next call after the config is modified, and is rebuilt and published
+     * by reload() once it has been requested, so readers of the snapshot never touch the mutable tree.
+     * Building the snapshot converts all deferred entries of a lazy config.
+     */
+    public FrozenNode frozen() {
+        Frozen frozen = this.frozen;
+        long version = tracker.version.get();
+        if (frozen == null || frozen.version != version) {
+            this.frozen = frozen = new Frozen(version, freeze());
+        }
+        return frozen.node;
+    }
+
+    /**
+     * Check whether the previous version of the file is kept as a '.bak' when saving
+     */
+    public boolean backup() {
+        return backup;
+    }
+
+    /**
+     * Set whether the previous version of the file is kept as a '.bak' when saving.
+     * The backup is read in place of the file should the file fail to parse.
+     */
+    public Config backup(boolean backup) {
+        this.backup = backup;
+        return this;
+    }
+
+    /**
+     * Reload the config whenever its file is changed by another process, calling the listener after each reload.
+     * All watched configs share a single watch thread.
+     */
+    public Config watch(Consumer<Config> listener) {
+        Watcher.watch(this, listener);
+        return this;
+    }
+
+    /**
+     * Stop reloading the config when its file changes
+     */
+    public Config unwatch() {
+        Watcher.unwatch(this);
+        return this;
+    }
+
+    /**
+     * Load a new instance of the config from disk.
+     * The new tree is fully parsed before it replaces the current one so readers never see a partial load.
+     * Nodes obtained before the reload remain attached to the old tree (see refresh()).
      */
     public Config reload() {
-        CommentedConfigurationNode node = read(loader);
+        // deferred entries are not converted just to be diffed; they are reported as changed instead
+        CommentedConfigurationNode previous = raw();
+        long start = Stats.start();
+        CommentedConfigurationNode node = read(loader, path);
+        Stats.read(path, start);
+        Stats.reload(path);
+        lazy = null;
         setNode(node);
+        tracker.dirty = false;
+        tracker.replaced(previous, node);
+        if (frozen != null) {
+            frozen();
+        }
         return this;
     }
 
     /**
-     * Write the config to disk
+     * Re-read the config from disk and merge it into the current tree in place. Values that are unchanged
+     * keep their existing nodes, so Nodes previously obtained from this config stay attached and only the
+     * changed values are replaced. The merge holds the config's write lock, so a save never captures a tree
+     * that is part way through a merge, but lock-free readers of live nodes may see the changed values
+     * updated one at a time; use frozen() where a consistent view is needed.
+     * Returns the paths of the values that changed.
+     */
+    public ChangeSet refresh() {
+        List<Object[]> changes = new ArrayList<>();
+        writeLock.lock();
+        try {
+            long start = Stats.start();
+            CommentedConfigurationNode node = read(loader, path);
+            Stats.read(path, start);
+            Stats.reload(path);
+            CommentedConfigurationNode root = raw();
+            // cleared before merging so that changes made during the merge mark the config dirty again
+            tracker.dirty = false;
+            LazyHocon lazy = this.lazy;
+            if (lazy != null) {
+                refreshDeferred(lazy, root, node, changes);
+                this.lazy = null;
+            }
+            Tracker.merge(root, node, new ArrayList<>(), changes);
+            if (changes.isEmpty()) {
+                return ChangeSet.EMPTY;
+            }
+            tracker.version.incrementAndGet();
+            if (frozen != null) {
+                frozen();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        tracker.changed(changes);
+        return new ChangeSet(changes);
+    }
+
+    /**
+     * Compare each entry that has not been converted yet with its freshly read copy, so that only entries
+     * that really changed are reported. Unchanged entries take their fresh copy silently, removed entries
+     * are discarded and reported, and changed entries are converted so the merge can diff them.
+     */
+    private static void refreshDeferred(LazyHocon lazy, CommentedConfigurationNode root, CommentedConfigurationNode fresh, List<Object[]> changes) {
+        for (String key : lazy.pendingKeys()) {
+            CommentedConfigurationNode previous = lazy.peek(key);
+            if (previous == null) {
+                // converted since the keys were listed, so the merge handles it
+                continue;
+            }
+            CommentedConfigurationNode next = fresh.getNode(key);
+            if (next.isVirtual()) {
+                lazy.discard(key);
+                changes.add(new Object[]{key});
+            } else if (Tracker.same(previous, next)) {
+                CommentedConfigurationNode target = root.getNode(key);
+                target.setValue(next);
+                Tracker.copyComments(next, target);
+                lazy.discard(key);
+            } else {
+                lazy.load(root, key);
+            }
+        }
+    }
+
+    /**
+     * Load a new instance of the config from disk on the IO executor (see ioExecutor)
+     */
+    public CompletableFuture<Config> reloadAsync() {
+        return BlockingIO.supply(this::reload);
+    }
+
+    /**
+     * Check if the config has been modified through Node methods since it was loaded or last saved
+     */
+    public boolean isDirty() {
+        return tracker.dirty;
+    }
+
+    /**
+     * Mark the config as modified, for changes made directly to the backing node
+     */
+    public Config markDirty() {
+        tracker.dirty = true;
+        return this;
+    }
+
+    /**
+     * Write the config to disk if it has been modified since it was loaded or last saved.
+     * Returns true only if the config was written.
+     */
+    public boolean saveIfDirty() {
+        return isDirty() && save();
+    }
+
+    /**
+     * Write the config to disk.
+     * Does nothing if the file exists and the config has not been modified since it was loaded or last saved.
+     * The file is written to a temporary sibling and moved over the original once complete.
      */
     public boolean save() {
-        return write(loader(), backing(), path());
+        mkdirs(path().getParent());
+        return write();
+    }
+
+    private boolean write() {
+        writeLock.lock();
+        try {
+            if (!tracker.dirty && Files.exists(path())) {
+                return true;
+            }
+            // cleared before writing so that changes made during the write mark the config dirty again
+            tracker.dirty = false;
+            long start = Stats.start();
+            boolean saved = false;
+            try {
+                saved = write(format, backing(), path(), backup());
+            } finally {
+                if (!saved) {
+                    tracker.dirty = true;
+                }
+            }
+            if (saved) {
+                Stats.write(path(), start);
+                Watcher.touch(this);
+            }
+            return saved;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Write the config to disk on the IO executor after a short delay.
+     * Saves requested while a write is pending are coalesced into that write.
+     */
+    public CompletableFuture<Boolean> saveAsync() {
+        return saveAsync(AsyncWriter.DEFAULT_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Write the config to disk on the IO executor after the given delay.
+     * Saves requested while a write is pending are coalesced into that write.
+     */
+    public CompletableFuture<Boolean> saveAsync(long delay, TimeUnit unit) {
+        return AsyncWriter.submit(this, delay, unit);
     }
 
     /**
@@ -71,15 +322,125 @@ public class Config extends Node {
     }
 
     /**
-     * Loads all configs in the given directory with the given extension
+     * Immediately write any saves still pending from saveAsync.
+     * This is also run automatically on JVM shutdown.
      */
-    public static Stream<Config> all(Path dir, String extension) {
-        try {
-            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:*" + extension);
-            return Files.list(dir).filter(path -> matcher.matches(path.getFileName())).map(Config::must);
-        } catch (IOException e) {
-            return Stream.empty();
+    public static void flushAsync() {
+        AsyncWriter.flush();
+    }
+
+    /**
+     * Set the executor that mustAsync, reloadAsync and saveAsync perform their file IO on, or null to restore
+     * the default: a virtual thread per task on JDK 21+, otherwise a bounded pool of daemon threads
+     */
+    public static void ioExecutor(Executor executor) {
+        BlockingIO.setExecutor(executor);
+    }
+
+    /**
+     * Register a listener to receive load, save and bind timings and counts
+     */
+    public static void metrics(Metrics metrics) {
+        Stats.add(metrics);
+    }
+
+    /**
+     * Unregister a metrics listener
+     */
+    public static void removeMetrics(Metrics metrics) {
+        Stats.remove(metrics);
+    }
+
+    /**
+     * Cache binary snapshots of loaded configs in the given directory (or disable caching if null).
+     * Configs whose file is unchanged since their snapshot was taken are decoded from the snapshot
+     * instead of being parsed.
+     */
+    public static void snapshots(Path dir) {
+        Snapshots.setDirectory(dir);
+    }
+
+    /**
+     * Save all of the given configs, writing up to one file per available processor at a time.
+     * Returns whether each config's path was saved successfully.
+     */
+    public static Map<Path, Boolean> saveAll(Collection<? extends Config> configs) {
+        return saveAll(configs, ForkJoinPool.commonPool(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Save all of the given configs, writing up to 'parallelism' files at a time on the given executor.
+     * Directories are created once per distinct parent and clean configs are skipped.
+     * Returns whether each config's path was saved successfully.
+     */
+    public static Map<Path, Boolean> saveAll(Collection<? extends Config> configs, Executor executor, int parallelism) {
+        List<Config> pending = new ArrayList<>(configs.size());
+        Set<Path> dirs = new HashSet<>();
+        for (Config config : configs) {
+            if (config.isDirty() || !Files.exists(config.path())) {
+                pending.add(config);
+                dirs.add(config.path().getParent());
+            }
+        }
+
+        for (Path dir : dirs) {
+            mkdirs(dir);
         }
+
+        Function<Config, Boolean> write = config -> {
+            try {
+                return config.write();
+            } catch (Throwable t) {
+                t.printStackTrace();
+                return false;
+            }
+        };
+
+        List<Boolean> results = parallel(pending, write, executor, parallelism);
+        Map<Path, Boolean> saved = new LinkedHashMap<>();
+        for (Config config : configs) {
+            saved.put(config.path(), true);
+        }
+        for (int i = 0; i < pending.size(); i++) {
+            saved.put(pending.get(i).path(), results.get(i));
+        }
+        return saved;
+    }
+
+    /**
+     * Loads all configs in the given directory with the given extension.
+     * Returns an empty stream if the directory cannot be read, and an empty config for any file that cannot
+     * be parsed. The directory is released once the stream is exhausted or closed.
+     */
+    public static Stream<Config> all(Path dir, String extension) {
+        return stream(dir, 1, "*" + extension, (path, e) -> {}, Config::must);
+    }
+
+    /**
+     * Lazily loads the configs in the directory tree whose path relative to the directory matches the glob
+     * (ie "**.conf"), loading each file only as the stream reaches it.
+     * Directories that cannot be read are skipped, and files that cannot be parsed load as empty configs.
+     */
+    public static Stream<Config> stream(Path dir, String glob) {
+        return stream(dir, Integer.MAX_VALUE, glob, (path, e) -> {}, Config::must);
+    }
+
+    /**
+     * Lazily loads the configs up to 'maxDepth' directories deep (1 being the directory itself) whose path
+     * relative to the directory matches the glob, loading each file only as the stream reaches it.
+     * Directories or files that cannot be read or parsed are passed to the error handler and skipped.
+     * Symbolic links to directories are not followed.
+     * At most one directory handle per level is held open; they are released once the stream is exhausted
+     * or closed, so a stream that is not fully consumed should be closed.
+     */
+    public static Stream<Config> stream(Path dir, int maxDepth, String glob, BiConsumer<Path, IOException> errors) {
+        return stream(dir, maxDepth, glob, errors, path -> load(path, errors));
+    }
+
+    private static Stream<Config> stream(Path dir, int maxDepth, String glob, BiConsumer<Path, IOException> errors, Function<Path, Config> loader) {
+        DirectoryScan scan = new DirectoryScan(dir, maxDepth, glob, errors);
+        Spliterator<Path> paths = Spliterators.spliteratorUnknownSize(scan, Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(paths, false).onClose(scan::close).map(loader).filter(Objects::nonNull);
     }
 
     /**
@@ -89,18 +450,104 @@ public class Config extends Node {
         return all(dir, extension).map(c -> c.bind(type, (T) null)).filter(Objects::nonNull);
     }
 
+    /**
+     * Loads all configs in the given directory with the given extension, parsing up to
+     * 'parallelism' files at a time on the common ForkJoinPool.
+     * Configs are returned in the order of their file names.
+     */
+    public static Stream<Config> all(Path dir, String extension, int parallelism) {
+        return all(dir, extension, ForkJoinPool.commonPool(), parallelism);
+    }
+
+    /**
+     * Loads all configs in the given directory with the given extension, parsing up to
+     * 'parallelism' files at a time on the given executor.
+     * Configs are returned in the order of their file names.
+     */
+    public static Stream<Config> all(Path dir, String extension, Executor executor, int parallelism) {
+        return parallel(list(dir, extension), Config::must, executor, parallelism).stream();
+    }
+
+    /**
+     * Maps all configs in the given directory with the given extension to a stream of the given type,
+     * loading and binding up to 'parallelism' files at a time on the common ForkJoinPool.
+     * Values are returned in the order of their file names.
+     */
+    public static <T> Stream<T> all(Path dir, String extension, Class<T> type, int parallelism) {
+        return all(dir, extension, type, ForkJoinPool.commonPool(), parallelism);
+    }
+
+    /**
+     * Maps all configs in the given directory with the given extension to a stream of the given type,
+     * loading and binding up to 'parallelism' files at a time on the given executor.
+     * Values are returned in the order of their file names.
+     */
+    public static <T> Stream<T> all(Path dir, String extension, Class<T> type, Executor executor, int parallelism) {
+        Function<Path, T> loader = path -> must(path).bind(type, (T) null);
+        return parallel(list(dir, extension), loader, executor, parallelism).stream().filter(Objects::nonNull);
+    }
+
     /**
      * Loads or creates a new config from the given path.
+     * The format is chosen by the file's extension (HOCON if it has no registered format).
      * Creates the parent directories and file if necessary.
      */
     public static Config must(Path path) {
         path = path.toAbsolutePath();
-        HoconConfigurationLoader loader = HoconConfigurationLoader.builder()
-                .setDefaultOptions(DEFAULT_OPTIONS.setMapFactory(MapFactories.insertionOrdered()))
-                .setSource(reader(path))
-                .setSink(writer(path))
-                .build();
-        return must(loader, path);
+        return must(path, Formats.get(path));
+    }
+
+    /**
+     * Loads or creates a new config from the given path using the given format.
+     * Creates the parent directories and file if necessary.
+     */
+    public static Config must(Path path, Format format) {
+        path = path.toAbsolutePath();
+        return must(format, format.loader(path, path), path);
+    }
+
+    /**
+     * Loads or creates a new config from the given path on the IO executor (see ioExecutor)
+     */
+    public static CompletableFuture<Config> mustAsync(Path path) {
+        return BlockingIO.supply(() -> must(path));
+    }
+
+    /**
+     * Loads or creates a new config from the given path using the given format on the IO executor (see ioExecutor)
+     */
+    public static CompletableFuture<Config> mustAsync(Path path, Format format) {
+        return BlockingIO.supply(() -> must(path, format));
+    }
+
+    /**
+     * Use the given format for files with the given extension (such as ".json")
+     */
+    public static void format(String extension, Format format) {
+        Formats.register(extension, format);
+    }
+
+    /**
+     * Loads a config from the given path, converting each top-level entry to a node only when it is first
+     * accessed through node(..) or one of the keyed getters/setters. Whole-tree operations such as
+     * backing(), iteration or saving convert all remaining entries.
+     * Entries are added to the tree in the order they are first accessed, so saving a config whose entries
+     * were accessed out of order writes its top-level keys in that order rather than the file's.
+     * Useful for large data files where only a few sections are read.
+     */
+    public static Config lazy(Path path) {
+        path = path.toAbsolutePath();
+        if (Formats.get(path) != Format.HOCON) {
+            return must(path);
+        }
+        ConfigurationLoader<CommentedConfigurationNode> loader = Format.HOCON.loader(path, path);
+        LazyHocon lazy = Files.exists(path) ? LazyHocon.parse(path) : null;
+        if (lazy == null) {
+            return must(Format.HOCON, loader, path);
+        }
+        Config config = new Config(Format.HOCON, loader, loader.createEmptyNode(), path);
+        config.lazy = lazy;
+        return config;
     }
 
     /**
@@ -119,38 +566,150 @@ public class Config extends Node {
         return must(dir.resolve(file));
     }
 
-    private static Callable<BufferedWriter> writer(Path path) {
-        return () -> Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+    private static List<Path> list(Path dir, String extension) {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:*" + extension);
+        try (Stream<Path> paths = Files.list(dir)) {
+            return paths.filter(path -> matcher.matches(path.getFileName())).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return Collections.emptyList();
+        }
+    }
+
+    private static <I, T> List<T> parallel(List<I> inputs, Function<I, T> function, Executor executor, int parallelism) {
+        if (inputs.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Object[] results = new Object[inputs.size()];
+        AtomicInteger next = new AtomicInteger();
+        Runnable worker = () -> {
+            for (int i = next.getAndIncrement(); i < results.length; i = next.getAndIncrement()) {
+                results[i] = function.apply(inputs.get(i));
+            }
+        };
+
+        int workers = Math.max(1, Math.min(parallelism, results.length));
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[workers];
+        for (int i = 0; i < workers; i++) {
+            futures[i] = CompletableFuture.runAsync(worker, executor);
+        }
+        CompletableFuture.allOf(futures).join();
+
+        List<T> list = new ArrayList<>(results.length);
+        for (Object result : results) {
+            @SuppressWarnings("unchecked")
+            T t = (T) result;
+            list.add(t);
+        }
+        return list;
+    }
+
+    /**
+     * A temporary sibling unique to a single write, so concurrent saves of the same path never share a file
+     */
+    private static Path uniqueTemp(Path path) {
+        return path.resolveSibling(path.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+    }
+
+    private static Path backup(Path path) {
+        return path.resolveSibling(path.getFileName() + ".bak");
+    }
+
+    private static Config must(Format format, ConfigurationLoader<CommentedConfigurationNode> loader, Path path) {
+        return load(format, loader, path, null);
     }
 
-    private static Callable<BufferedReader> reader(Path path) {
-        return () -> Files.newBufferedReader(path, StandardCharsets.UTF_8);
+    private static Config load(Path path, BiConsumer<Path, IOException> errors) {
+        path = path.toAbsolutePath();
+        Format format = Formats.get(path);
+        return load(format, format.loader(path, path), path, errors);
     }
 
-    private static Config must(ConfigurationLoader<CommentedConfigurationNode> loader, Path path) {
-        CommentedConfigurationNode root = Config.read(loader);
-        return new Config(loader, root, path);
+    private static Config load(Format format, ConfigurationLoader<CommentedConfigurationNode> loader, Path path, BiConsumer<Path, IOException> errors) {
+        long start = Stats.start();
+        CommentedConfigurationNode root = loader instanceof BinaryLoader ? null : Snapshots.load(loader, path);
+        if (root == null) {
+            root = Config.read(loader, path, errors);
+        }
+        Stats.read(path, start);
+        return root == null ? null : new Config(format, loader, root, path);
     }
 
-    private static CommentedConfigurationNode read(ConfigurationLoader<CommentedConfigurationNode> loader) {
+    private static CommentedConfigurationNode read(ConfigurationLoader<CommentedConfigurationNode> loader, Path path) {
+        return read(loader, path, null);
+    }
+
+    /**
+     * Reads the file, falling back to its backup and then to an empty node.
+     * If an error handler is given, a file that cannot be parsed is passed to it and, unless its backup
+     * can be read instead, null is returned rather than an empty node.
+     */
+    private static CommentedConfigurationNode read(ConfigurationLoader<CommentedConfigurationNode> loader, Path path, BiConsumer<Path, IOException> errors) {
         try {
             return loader.load();
         } catch (Throwable e) {
-            return loader.createEmptyNode();
+            boolean exists = Files.exists(path);
+            if (exists) {
+                Stats.parseFailure(path, e);
+                if (errors != null) {
+                    errors.accept(path, e instanceof IOException ? (IOException) e : new IOException(e));
+                }
+            }
+            Path backup = backup(path);
+            if (Files.exists(backup)) {
+                try {
+                    return Formats.get(path).loader(backup, backup).load();
+                } catch (Throwable ignored) {
+                }
+            }
+            return exists && errors != null ? null : loader.createEmptyNode();
         }
     }
 
-    private static boolean write(ConfigurationLoader<CommentedConfigurationNode> loader, ConfigurationNode node, Path path) {
+    private static boolean write(Format format, ConfigurationNode node, Path path, boolean backup) {
+        Path temp = uniqueTemp(path);
         try {
-            mkdirs(path.getParent());
-            loader.save(node);
+            format.loader(path, temp).save(node);
+            commit(temp, path, backup);
             return true;
-        } catch (IOException e) {
+        } catch (IOException | RuntimeException e) {
             e.printStackTrace();
+            Stats.writeFailure(path, e);
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+            }
             return false;
         }
     }
 
+    private static void commit(Path temp, Path path, boolean backup) throws IOException {
+        if (backup && Files.exists(path)) {
+            Files.copy(path, backup(path), StandardCopyOption.REPLACE_EXISTING);
+        }
+        try {
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+        sync(path.getParent());
+    }
+
+    /**
+     * Flush the directory entry so the rename itself survives a crash.
+     * Not all platforms allow directories to be opened, in which case this does nothing.
+     */
+    private static void sync(Path dir) {
+        if (dir == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
     private static void mkdirs(Path dir) {
         if (dir == null) {
             return;
@@ -162,4 +721,15 @@ public class Config extends Node {
             e.printStackTrace();
         }
     }
+
+    private static final class Frozen {
+
+        private final long version;
+        private final FrozenNode node;
+
+        private Frozen(long version, FrozenNode node) {
+            this.version = version;
+            this.node = node;
+        }
+    }
 }
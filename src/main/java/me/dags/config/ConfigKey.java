@@ -0,0 +1,47 @@
+package me.dags.config;
+
+import java.util.function.Function;
+
+/**
+ * A cached value read from a named child of a Node
+ *
+ * @author dags <dags@dags.me>
+ */
+public final class ConfigKey<T> extends Key {
+
+    private final Function<Node, T> reader;
+    private volatile Value<T> current;
+
+    ConfigKey(Node parent, String key, Function<Node, T> reader) {
+        super(parent, key);
+        this.reader = reader;
+    }
+
+    /**
+     * Get the current value
+     */
+    public T get() {
+        Value<T> value = current;
+        long changes = changes();
+        if (value == null || value.changes != changes) {
+            current = value = new Value<>(changes, reader.apply(node()));
+        }
+        return value.value;
+    }
+
+    @Override
+    public String toString() {
+        return key() + "=" + get();
+    }
+
+    private static final class Value<T> {
+
+        private final long changes;
+        private final T value;
+
+        private Value(long changes, T value) {
+            this.changes = changes;
+            this.value = value;
+        }
+    }
+}
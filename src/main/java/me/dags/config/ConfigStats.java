@@ -0,0 +1,228 @@
+package me.dags.config;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A Metrics implementation that aggregates timings and sizes into histograms, optionally exposed over JMX
+ *
+ * @author dags <dags@dags.me>
+ */
+public class ConfigStats implements Metrics, ConfigStatsMBean {
+
+    private static final String OBJECT_NAME = "me.dags.config:type=ConfigStats";
+    private static ConfigStats installed;
+
+    private final Histogram readNanos = new Histogram();
+    private final Histogram readBytes = new Histogram();
+    private final Histogram writeNanos = new Histogram();
+    private final Histogram writeBytes = new Histogram();
+    private final Histogram bindNanos = new Histogram();
+    private final Map<Class<?>, Histogram> bindTypes = new ConcurrentHashMap<>();
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder parseFailures = new LongAdder();
+    private final LongAdder writeFailures = new LongAdder();
+
+    /**
+     * Load times in nanoseconds
+     */
+    public Histogram readNanos() {
+        return readNanos;
+    }
+
+    /**
+     * Loaded file sizes in bytes
+     */
+    public Histogram readBytes() {
+        return readBytes;
+    }
+
+    /**
+     * Write times in nanoseconds
+     */
+    public Histogram writeNanos() {
+        return writeNanos;
+    }
+
+    /**
+     * Written file sizes in bytes
+     */
+    public Histogram writeBytes() {
+        return writeBytes;
+    }
+
+    /**
+     * Bind times in nanoseconds across all types
+     */
+    public Histogram bindNanos() {
+        return bindNanos;
+    }
+
+    /**
+     * Bind times in nanoseconds for the given type
+     */
+    public Histogram bindNanos(Class<?> type) {
+        Histogram histogram = bindTypes.get(type);
+        return histogram != null ? histogram : new Histogram();
+    }
+
+    @Override
+    public void read(Path path, long nanos, long bytes) {
+        readNanos.record(nanos);
+        readBytes.record(bytes);
+    }
+
+    @Override
+    public void write(Path path, long nanos, long bytes) {
+        writeNanos.record(nanos);
+        writeBytes.record(bytes);
+    }
+
+    @Override
+    public void bind(Class<?> type, long nanos) {
+        bindNanos.record(nanos);
+        bindTypes.computeIfAbsent(type, t -> new Histogram()).record(nanos);
+    }
+
+    @Override
+    public void reload(Path path) {
+        reloads.increment();
+    }
+
+    @Override
+    public void parseFailure(Path path, Throwable error) {
+        parseFailures.increment();
+    }
+
+    @Override
+    public void writeFailure(Path path, Throwable error) {
+        writeFailures.increment();
+    }
+
+    @Override
+    public long getReadCount() {
+        return readNanos.count();
+    }
+
+    @Override
+    public double getReadMeanMicros() {
+        return readNanos.mean() / 1000D;
+    }
+
+    @Override
+    public long getReadP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(readNanos.percentile(0.99));
+    }
+
+    @Override
+    public long getReadMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(readNanos.max());
+    }
+
+    @Override
+    public double getReadMeanBytes() {
+        return readBytes.mean();
+    }
+
+    @Override
+    public long getReadMaxBytes() {
+        return readBytes.max();
+    }
+
+    @Override
+    public long getWriteCount() {
+        return writeNanos.count();
+    }
+
+    @Override
+    public double getWriteMeanMicros() {
+        return writeNanos.mean() / 1000D;
+    }
+
+    @Override
+    public long getWriteP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(writeNanos.percentile(0.99));
+    }
+
+    @Override
+    public long getWriteMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(writeNanos.max());
+    }
+
+    @Override
+    public double getWriteMeanBytes() {
+        return writeBytes.mean();
+    }
+
+    @Override
+    public long getWriteMaxBytes() {
+        return writeBytes.max();
+    }
+
+    @Override
+    public long getBindCount() {
+        return bindNanos.count();
+    }
+
+    @Override
+    public double getBindMeanMicros() {
+        return bindNanos.mean() / 1000D;
+    }
+
+    @Override
+    public long getBindP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(bindNanos.percentile(0.99));
+    }
+
+    @Override
+    public String[] getBindTypes() {
+        return bindTypes.entrySet().stream()
+                .map(e -> e.getKey().getName() + ": " + e.getValue())
+                .sorted()
+                .toArray(String[]::new);
+    }
+
+    @Override
+    public long getReloadCount() {
+        return reloads.sum();
+    }
+
+    @Override
+    public long getParseFailureCount() {
+        return parseFailures.sum();
+    }
+
+    @Override
+    public long getWriteFailureCount() {
+        return writeFailures.sum();
+    }
+
+    /**
+     * Create a ConfigStats, register it to receive metrics and expose it over JMX as 'me.dags.config:type=ConfigStats'.
+     * Replaces any previously installed ConfigStats.
+     */
+    public static synchronized ConfigStats install() {
+        ConfigStats stats = new ConfigStats();
+        if (installed != null) {
+            Config.removeMetrics(installed);
+        }
+        installed = stats;
+        Config.metrics(stats);
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(stats, name);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,47 @@
+package me.dags.config;
+
+/**
+ * The JMX view of ConfigStats. Times are in microseconds and sizes in bytes.
+ *
+ * @author dags <dags@dags.me>
+ */
+public interface ConfigStatsMBean {
+
+    long getReadCount();
+
+    double getReadMeanMicros();
+
+    long getReadP99Micros();
+
+    long getReadMaxMicros();
+
+    double getReadMeanBytes();
+
+    long getReadMaxBytes();
+
+    long getWriteCount();
+
+    double getWriteMeanMicros();
+
+    long getWriteP99Micros();
+
+    long getWriteMaxMicros();
+
+    double getWriteMeanBytes();
+
+    long getWriteMaxBytes();
+
+    long getBindCount();
+
+    double getBindMeanMicros();
+
+    long getBindP99Micros();
+
+    String[] getBindTypes();
+
+    long getReloadCount();
+
+    long getParseFailureCount();
+
+    long getWriteFailureCount();
+}
@@ -0,0 +1,299 @@
+package me.dags.config;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A cache of per-entity configs stored as individual files in one directory.
+ * Configs are loaded on first access and saved when they are evicted, either because the store has grown
+ * past its maximum size (least recently used first) or because they have been idle for too long.
+ * Evictions triggered by get() run on the IO executor, one scan at a time, so callers never wait on the saves.
+ *
+ * Concurrent requests for the same id share a single load, while loads of different ids never wait on each
+ * other. A load waits for any save of the same id's evicted copy to finish first, so stale data is never read
+ * back. File IO is never performed while holding a lock: the striped locks only guard the brief hand-over from
+ * the cache to the pending save when an entry is evicted.
+ *
+ * @author dags <dags@dags.me>
+ */
+public class ConfigStore<K> {
+
+    private final Path dir;
+    private final Function<K, String> naming;
+    private final Map<K, CompletableFuture<Entry>> entries = new ConcurrentHashMap<>();
+    private final Map<K, CompletableFuture<Boolean>> saving = new ConcurrentHashMap<>();
+    private final ReentrantLock[] locks;
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private volatile int maxSize = Integer.MAX_VALUE;
+    private volatile long idleMillis = Long.MAX_VALUE;
+
+    private ConfigStore(Path dir, Function<K, String> naming, int stripes) {
+        this.dir = dir.toAbsolutePath();
+        this.naming = naming;
+        this.locks = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * The directory configs are stored in
+     */
+    public Path directory() {
+        return dir;
+    }
+
+    /**
+     * Set the maximum number of configs held before the least recently used are evicted.
+     * The store may briefly hold more while a background eviction is in progress.
+     */
+    public ConfigStore<K> maxSize(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+        return this;
+    }
+
+    /**
+     * Set how long a config may go unused before cleanUp() evicts it
+     */
+    public ConfigStore<K> expireAfterIdle(long time, TimeUnit unit) {
+        this.idleMillis = unit.toMillis(time);
+        return this;
+    }
+
+    /**
+     * The number of configs currently held
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the config for the id, loading (or creating) it if it isn't held
+     */
+    public Config get(K id) {
+        CompletableFuture<Entry> future = entries.get(id);
+        if (future == null) {
+            CompletableFuture<Entry> load = new CompletableFuture<>();
+            future = entries.putIfAbsent(id, load);
+            if (future == null) {
+                future = load;
+                load(id, load);
+                if (entries.size() > maxSize && evicting.compareAndSet(false, true)) {
+                    try {
+                        BlockingIO.execute(this::runEviction);
+                    } catch (RejectedExecutionException e) {
+                        evicting.set(false);
+                    }
+                }
+            }
+        }
+        return future.join().touch();
+    }
+
+    /**
+     * Get the config for the id if it is held, otherwise null
+     */
+    public Config getIfPresent(K id) {
+        Entry entry = loaded(entries.get(id));
+        return entry != null ? entry.touch() : null;
+    }
+
+    /**
+     * Save and remove the config for the id if it is held, waiting for it to finish loading if necessary
+     */
+    public boolean evict(K id) {
+        CompletableFuture<Entry> future = entries.get(id);
+        if (future == null) {
+            return false;
+        }
+        try {
+            future.join();
+        } catch (CompletionException | CancellationException e) {
+            return false;
+        }
+        return evict(id, future);
+    }
+
+    /**
+     * Evict any configs that have been idle for longer than the idle time, and any beyond the maximum size
+     */
+    public void cleanUp() {
+        long idle = idleMillis;
+        if (idle != Long.MAX_VALUE) {
+            long cutoff = System.currentTimeMillis() - idle;
+            for (Map.Entry<K, CompletableFuture<Entry>> e : entries.entrySet()) {
+                Entry entry = loaded(e.getValue());
+                if (entry != null && entry.lastAccess < cutoff) {
+                    evict(e.getKey(), e.getValue());
+                }
+            }
+        }
+        if (entries.size() > maxSize && evicting.compareAndSet(false, true)) {
+            runEviction();
+        }
+    }
+
+    /**
+     * Save every modified config, writing several at a time.
+     * Returns whether each config's path was saved successfully.
+     */
+    public Map<Path, Boolean> flush() {
+        List<Config> configs = new ArrayList<>(entries.size());
+        for (CompletableFuture<Entry> future : entries.values()) {
+            Entry entry = loaded(future);
+            if (entry != null) {
+                configs.add(entry.config);
+            }
+        }
+        return Config.saveAll(configs);
+    }
+
+    /**
+     * Save and remove every held config
+     */
+    public void close() {
+        for (K id : new ArrayList<>(entries.keySet())) {
+            evict(id);
+        }
+    }
+
+    /**
+     * Load the config for the id into the future that was registered for it, once any save of
+     * its previously evicted copy has finished
+     */
+    private void load(K id, CompletableFuture<Entry> future) {
+        try {
+            CompletableFuture<Boolean> save = saving.get(id);
+            if (save != null) {
+                save.join();
+            }
+            future.complete(new Entry(Config.must(dir, naming.apply(id))));
+        } catch (Throwable t) {
+            entries.remove(id, future);
+            future.completeExceptionally(t);
+        }
+    }
+
+    /**
+     * Runs an eviction claimed by setting the 'evicting' flag, releasing the flag once it is done
+     */
+    private void runEviction() {
+        try {
+            evictOverflow();
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Evict the least recently used entries until the store is back under 90% of its maximum size
+     * so that the scan is amortized over many inserts
+     */
+    private void evictOverflow() {
+        int max = maxSize;
+        int target = Math.max(0, max - Math.max(1, max / 10));
+        int excess = entries.size() - target;
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<K, CompletableFuture<Entry>>> snapshot = new ArrayList<>(entries.size());
+        for (Map.Entry<K, CompletableFuture<Entry>> e : entries.entrySet()) {
+            if (loaded(e.getValue()) != null) {
+                snapshot.add(e);
+            }
+        }
+        snapshot.sort(Comparator.comparingLong(e -> e.getValue().join().lastAccess));
+        for (int i = 0; i < excess && i < snapshot.size(); i++) {
+            Map.Entry<K, CompletableFuture<Entry>> e = snapshot.get(i);
+            evict(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Remove the loaded entry if it is still held, then save it. The save is registered under the id before
+     * the entry is removed so that a load of the id started after the removal always waits for it.
+     */
+    private boolean evict(K id, CompletableFuture<Entry> expected) {
+        CompletableFuture<Boolean> saved = new CompletableFuture<>();
+        ReentrantLock lock = lock(id);
+        lock.lock();
+        try {
+            if (entries.get(id) != expected) {
+                return false;
+            }
+            saving.put(id, saved);
+            entries.remove(id);
+        } finally {
+            lock.unlock();
+        }
+
+        boolean result = false;
+        try {
+            result = expected.join().config.save();
+            return result;
+        } finally {
+            saved.complete(result);
+            saving.remove(id, saved);
+        }
+    }
+
+    private ReentrantLock lock(K id) {
+        int hash = id.hashCode();
+        hash ^= (hash >>> 16);
+        return locks[(hash & 0x7FFFFFFF) % locks.length];
+    }
+
+    /**
+     * Create a store for configs in the given directory, naming each file using the given function
+     */
+    public static <K> ConfigStore<K> create(Path dir, Function<K, String> naming) {
+        int stripes = Math.max(16, Runtime.getRuntime().availableProcessors() * 4);
+        return new ConfigStore<>(dir, naming, stripes);
+    }
+
+    /**
+     * Create a store for configs in the given directory, named by the id followed by the extension
+     */
+    public static <K> ConfigStore<K> create(Path dir, String extension) {
+        return create(dir, id -> id + extension);
+    }
+
+    /**
+     * The entry held by the future, or null if it is still loading or failed to load
+     */
+    private static Entry loaded(CompletableFuture<Entry> future) {
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        return future.join();
+    }
+
+    private static final class Entry {
+
+        private final Config config;
+        private volatile long lastAccess;
+
+        private Entry(Config config) {
+            this.config = config;
+            this.lastAccess = System.currentTimeMillis();
+        }
+
+        private Config touch() {
+            lastAccess = System.currentTimeMillis();
+            return config;
+        }
+    }
+}
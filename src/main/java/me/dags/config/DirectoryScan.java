@@ -0,0 +1,131 @@
+package me.dags.config;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+
+/**
+ * Lazily walks a directory tree one entry at a time, holding at most one open DirectoryStream per level.
+ * Directories that cannot be read are passed to the error handler and skipped. Symbolic links to
+ * directories are not followed, so a link cycle cannot trap the walk; links to files are returned like files.
+ * The open streams are closed when the walk is exhausted or close() is called.
+ *
+ * @author dags <dags@dags.me>
+ */
+final class DirectoryScan implements Iterator<Path>, Closeable {
+
+    private final Path root;
+    private final int maxDepth;
+    private final PathMatcher matcher;
+    private final BiConsumer<Path, IOException> errors;
+    private final Deque<Level> levels = new ArrayDeque<>();
+
+    private Path next;
+
+    DirectoryScan(Path root, int maxDepth, String glob, BiConsumer<Path, IOException> errors) {
+        this.root = root;
+        this.maxDepth = maxDepth;
+        this.matcher = root.getFileSystem().getPathMatcher("glob:" + glob);
+        this.errors = errors;
+        open(root);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = advance();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Path next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Path path = next;
+        next = null;
+        return path;
+    }
+
+    @Override
+    public void close() {
+        while (!levels.isEmpty()) {
+            levels.pop().close();
+        }
+    }
+
+    private Path advance() {
+        while (!levels.isEmpty()) {
+            Level level = levels.peek();
+            Path path;
+            try {
+                if (!level.iterator.hasNext()) {
+                    levels.pop().close();
+                    continue;
+                }
+                path = level.iterator.next();
+            } catch (DirectoryIteratorException e) {
+                errors.accept(level.dir, e.getCause());
+                levels.pop().close();
+                continue;
+            }
+
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            } catch (IOException e) {
+                errors.accept(path, e);
+                continue;
+            }
+
+            if (attributes.isDirectory()) {
+                if (levels.size() < maxDepth) {
+                    open(path);
+                }
+            } else if (isFile(path, attributes) && matcher.matches(root.relativize(path))) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isFile(Path path, BasicFileAttributes attributes) {
+        return attributes.isRegularFile() || (attributes.isSymbolicLink() && Files.isRegularFile(path));
+    }
+
+    private void open(Path dir) {
+        try {
+            DirectoryStream<Path> stream = Files.newDirectoryStream(dir);
+            levels.push(new Level(dir, stream));
+        } catch (IOException e) {
+            errors.accept(dir, e);
+        }
+    }
+
+    private static final class Level {
+
+        private final Path dir;
+        private final DirectoryStream<Path> stream;
+        private final Iterator<Path> iterator;
+
+        private Level(Path dir, DirectoryStream<Path> stream) {
+            this.dir = dir;
+            this.stream = stream;
+            this.iterator = stream.iterator();
+        }
+
+        private void close() {
+            try {
+                stream.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
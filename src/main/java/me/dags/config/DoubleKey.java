@@ -0,0 +1,45 @@
+package me.dags.config;
+
+/**
+ * A cached double value read from a named child of a Node
+ *
+ * @author dags <dags@dags.me>
+ */
+public final class DoubleKey extends Key {
+
+    private final double def;
+    private volatile Value current;
+
+    DoubleKey(Node parent, String key, double def) {
+        super(parent, key);
+        this.def = def;
+    }
+
+    /**
+     * Get the current value
+     */
+    public double get() {
+        Value value = current;
+        long changes = changes();
+        if (value == null || value.changes != changes) {
+            current = value = new Value(changes, node().get(def));
+        }
+        return value.value;
+    }
+
+    @Override
+    public String toString() {
+        return key() + "=" + get();
+    }
+
+    private static final class Value {
+
+        private final long changes;
+        private final double value;
+
+        private Value(long changes, double value) {
+            this.changes = changes;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package me.dags.config;
+
+import ninja.leaping.configurate.ConfigurationNode;
+import ninja.leaping.configurate.ConfigurationOptions;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.commented.SimpleCommentedConfigurationNode;
+import ninja.leaping.configurate.hocon.HoconConfigurationLoader;
+import ninja.leaping.configurate.loader.ConfigurationLoader;
+import ninja.leaping.configurate.util.MapFactories;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Base for the loaders of the non-HOCON formats.
+ * A missing source file loads as an empty node, matching Configurate's own loaders.
+ * Files that aren't in the loader's format are read as HOCON, as all files were written as HOCON
+ * before formats were chosen by extension. They are converted to the loader's format on the next save.
+ *
+ * @author dags <dags@dags.me>
+ */
+abstract class FileLoader implements ConfigurationLoader<CommentedConfigurationNode> {
+
+    private static final ConfigurationOptions OPTIONS = Node.DEFAULT_OPTIONS.setMapFactory(MapFactories.insertionOrdered());
+
+    final Path source;
+    final Path sink;
+
+    FileLoader(Path source, Path sink) {
+        this.source = source;
+        this.sink = sink;
+    }
+
+    abstract void read(Path source, CommentedConfigurationNode root) throws IOException;
+
+    abstract void write(ConfigurationNode root, Path sink) throws IOException;
+
+    /**
+     * Check if the read failure means the file may be in the legacy HOCON format
+     */
+    boolean isLegacy(IOException error) {
+        return true;
+    }
+
+    public ConfigurationOptions getDefaultOptions() {
+        return OPTIONS;
+    }
+
+    public CommentedConfigurationNode load() throws IOException {
+        return load(getDefaultOptions());
+    }
+
+    @Override
+    public CommentedConfigurationNode load(ConfigurationOptions options) throws IOException {
+        CommentedConfigurationNode root = createEmptyNode(options);
+        if (Files.exists(source)) {
+            try {
+                read(source, root);
+            } catch (IOException e) {
+                if (!isLegacy(e)) {
+                    throw e;
+                }
+                return legacy(options, e);
+            }
+        }
+        return root;
+    }
+
+    private CommentedConfigurationNode legacy(ConfigurationOptions options, IOException error) throws IOException {
+        try {
+            return HoconConfigurationLoader.builder()
+                    .setDefaultOptions(options)
+                    .setSource(Formats.reader(source))
+                    .build()
+                    .load(options);
+        } catch (IOException | RuntimeException e) {
+            error.addSuppressed(e);
+            throw error;
+        }
+    }
+
+    @Override
+    public void save(ConfigurationNode node) throws IOException {
+        write(node, sink);
+    }
+
+    public CommentedConfigurationNode createEmptyNode() {
+        return createEmptyNode(getDefaultOptions());
+    }
+
+    @Override
+    public CommentedConfigurationNode createEmptyNode(ConfigurationOptions options) {
+        return SimpleCommentedConfigurationNode.root(options);
+    }
+
+    @Override
+    public boolean canLoad() {
+        return true;
+    }
+
+    @Override
+    public boolean canSave() {
+        return true;
+    }
+
+    static Writer writer(Path path) throws IOException {
+        try {
+            return Formats.writer(path).call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+}
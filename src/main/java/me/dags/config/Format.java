@@ -0,0 +1,38 @@
+package me.dags.config;
+
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.loader.ConfigurationLoader;
+
+import java.nio.file.Path;
+
+/**
+ * A file format that configs can be loaded from and saved to
+ *
+ * @author dags <dags@dags.me>
+ */
+public interface Format {
+
+    /**
+     * Human-editable HOCON (the default for unregistered extensions)
+     */
+    Format HOCON = Formats.HOCON;
+
+    /**
+     * Compact JSON without comments, suited to machine-written data
+     */
+    Format JSON = Formats.JSON;
+
+    /**
+     * The compact binary node encoding, suited to machine-written data
+     */
+    Format BINARY = Formats.BINARY;
+
+    /**
+     * Create a loader that reads from the source path and writes to the sink path
+     *
+     * @param source the file to load from
+     * @param sink   the file to save to
+     * @return the new loader
+     */
+    ConfigurationLoader<CommentedConfigurationNode> loader(Path source, Path sink);
+}
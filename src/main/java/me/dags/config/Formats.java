@@ -0,0 +1,92 @@
+package me.dags.config;
+
+import ninja.leaping.configurate.hocon.HoconConfigurationLoader;
+import ninja.leaping.configurate.util.MapFactories;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The built-in formats and the registry mapping file extensions to formats
+ *
+ * @author dags <dags@dags.me>
+ */
+final class Formats {
+
+    static final Format HOCON = (source, sink) -> HoconConfigurationLoader.builder()
+            .setDefaultOptions(Node.DEFAULT_OPTIONS.setMapFactory(MapFactories.insertionOrdered()))
+            .setSource(reader(source))
+            .setSink(writer(sink))
+            .build();
+
+    static final Format JSON = JsonLoader::new;
+
+    static final Format BINARY = BinaryLoader::new;
+
+    private static final Map<String, Format> formats = new ConcurrentHashMap<>();
+
+    static {
+        formats.put(".conf", HOCON);
+        formats.put(".hocon", HOCON);
+        formats.put(".json", JSON);
+        formats.put(".bin", BINARY);
+    }
+
+    private Formats() {
+
+    }
+
+    static void register(String extension, Format format) {
+        formats.put(normalize(extension), format);
+    }
+
+    /**
+     * Get the format registered for the path's extension, or HOCON if there is none
+     */
+    static Format get(Path path) {
+        String name = path.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        if (dot == -1) {
+            return HOCON;
+        }
+        return formats.getOrDefault(normalize(name.substring(dot)), HOCON);
+    }
+
+    private static String normalize(String extension) {
+        String lower = extension.toLowerCase(Locale.ENGLISH);
+        return lower.startsWith(".") ? lower : "." + lower;
+    }
+
+    static Callable<BufferedWriter> writer(Path path) {
+        return () -> {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            return new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        flush();
+                        channel.force(true);
+                    } finally {
+                        super.close();
+                    }
+                }
+            };
+        };
+    }
+
+    static Callable<BufferedReader> reader(Path path) {
+        return () -> Files.newBufferedReader(path, StandardCharsets.UTF_8);
+    }
+}
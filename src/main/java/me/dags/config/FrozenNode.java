@@ -0,0 +1,266 @@
+package me.dags.config;
+
+import ninja.leaping.configurate.ConfigurationNode;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of the values in a Node tree, safe to share between threads without locking.
+ * Values are addressed by their full path with segments joined by '.', eg "section.list.0.name",
+ * and are held in a flat open-addressing table with their numeric and boolean forms converted up front.
+ *
+ * @author dags <dags@dags.me>
+ */
+public final class FrozenNode {
+
+    private static final byte LONG = 1;
+    private static final byte DOUBLE = 2;
+    private static final byte BOOLEAN = 4;
+
+    private final String[] keys;
+    private final Object[] values;
+    private final long[] longs;
+    private final double[] doubles;
+    private final byte[] flags;
+    private final int mask;
+    private final int size;
+
+    private FrozenNode(int capacity, int size) {
+        this.keys = new String[capacity];
+        this.values = new Object[capacity];
+        this.longs = new long[capacity];
+        this.doubles = new double[capacity];
+        this.flags = new byte[capacity];
+        this.mask = capacity - 1;
+        this.size = size;
+    }
+
+    /**
+     * The number of values in the snapshot
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check if the snapshot holds a value at the path
+     */
+    public boolean contains(String path) {
+        return index(path) != -1;
+    }
+
+    /**
+     * Get the raw value at the path, or null
+     */
+    public Object get(String path) {
+        int i = index(path);
+        return i == -1 ? null : values[i];
+    }
+
+    /**
+     * Get the value at the path
+     */
+    public boolean get(String path, boolean def) {
+        int i = index(path);
+        return i != -1 && (flags[i] & BOOLEAN) != 0 ? longs[i] != 0 : def;
+    }
+
+    /**
+     * Get the value at the path
+     */
+    public int get(String path, int def) {
+        int i = index(path);
+        return i != -1 && (flags[i] & LONG) != 0 ? (int) longs[i] : def;
+    }
+
+    /**
+     * Get the value at the path
+     */
+    public long get(String path, long def) {
+        int i = index(path);
+        return i != -1 && (flags[i] & LONG) != 0 ? longs[i] : def;
+    }
+
+    /**
+     * Get the value at the path
+     */
+    public float get(String path, float def) {
+        int i = index(path);
+        return i != -1 && (flags[i] & DOUBLE) != 0 ? (float) doubles[i] : def;
+    }
+
+    /**
+     * Get the value at the path
+     */
+    public double get(String path, double def) {
+        int i = index(path);
+        return i != -1 && (flags[i] & DOUBLE) != 0 ? doubles[i] : def;
+    }
+
+    /**
+     * Get the value at the path
+     */
+    public String get(String path, String def) {
+        int i = index(path);
+        return i == -1 ? def : values[i].toString();
+    }
+
+    /**
+     * Get the value at the path
+     */
+    public <T extends Enum<T>> T get(String path, T def) {
+        int i = index(path);
+        if (i == -1) {
+            return def;
+        }
+        String name = values[i].toString();
+        for (T e : def.getDeclaringClass().getEnumConstants()) {
+            if (e.name().equals(name)) {
+                return e;
+            }
+        }
+        return def;
+    }
+
+    private int index(String path) {
+        for (int i = hash(path) & mask; ; i = (i + 1) & mask) {
+            String key = keys[i];
+            if (key == null) {
+                return -1;
+            }
+            if (key == path || key.equals(path)) {
+                return i;
+            }
+        }
+    }
+
+    private void put(String key, Object value) {
+        int i = hash(key) & mask;
+        while (keys[i] != null) {
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        convert(i, value);
+    }
+
+    private void convert(int i, Object value) {
+        byte flag = 0;
+        if (value instanceof Boolean) {
+            longs[i] = (Boolean) value ? 1L : 0L;
+            doubles[i] = longs[i];
+            flags[i] = BOOLEAN;
+            return;
+        }
+
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            double d = number.doubleValue();
+            doubles[i] = d;
+            flag |= DOUBLE;
+            if (value instanceof Double || value instanceof Float) {
+                if (d == Math.floor(d) && !Double.isInfinite(d)) {
+                    longs[i] = (long) d;
+                    flag |= LONG;
+                }
+            } else {
+                longs[i] = number.longValue();
+                flag |= LONG;
+            }
+            flags[i] = flag;
+            return;
+        }
+
+        String string = value.toString();
+        try {
+            longs[i] = Long.parseLong(string);
+            flag |= LONG;
+        } catch (NumberFormatException ignored) {
+        }
+        try {
+            doubles[i] = Double.parseDouble(string);
+            flag |= DOUBLE;
+        } catch (NumberFormatException ignored) {
+        }
+        if ((flag & LONG) == 0) {
+            switch (string.toLowerCase()) {
+                case "true":
+                case "yes":
+                case "t":
+                case "y":
+                    longs[i] = 1L;
+                    flag |= BOOLEAN;
+                    break;
+                case "false":
+                case "no":
+                case "f":
+                case "n":
+                    longs[i] = 0L;
+                    flag |= BOOLEAN;
+                    break;
+            }
+        } else if (longs[i] == 0L || longs[i] == 1L) {
+            flag |= BOOLEAN;
+        }
+        flags[i] = flag;
+    }
+
+    private static int hash(String key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Take a snapshot of the values under the given node
+     */
+    static FrozenNode of(ConfigurationNode root) {
+        Leaves leaves = new Leaves();
+        leaves.collect(root, null);
+        int capacity = Integer.highestOneBit(Math.max(2, leaves.size * 2 - 1)) << 1;
+        FrozenNode frozen = new FrozenNode(capacity, leaves.size);
+        for (int i = 0; i < leaves.size; i++) {
+            frozen.put(leaves.keys[i], leaves.values[i]);
+        }
+        return frozen;
+    }
+
+    private static final class Leaves {
+
+        private String[] keys = new String[16];
+        private Object[] values = new Object[16];
+        private int size;
+
+        private void collect(ConfigurationNode node, String path) {
+            if (node.hasMapChildren()) {
+                for (Map.Entry<Object, ? extends ConfigurationNode> e : node.getChildrenMap().entrySet()) {
+                    collect(e.getValue(), join(path, e.getKey()));
+                }
+                return;
+            }
+            if (node.hasListChildren()) {
+                List<? extends ConfigurationNode> children = node.getChildrenList();
+                for (int i = 0; i < children.size(); i++) {
+                    collect(children.get(i), join(path, i));
+                }
+                return;
+            }
+            Object value = node.getValue();
+            if (value == null || value instanceof Map || value instanceof List || path == null) {
+                return;
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[size] = path;
+            values[size] = value;
+            size++;
+        }
+
+        private static String join(String path, Object key) {
+            return path == null ? String.valueOf(key) : path + '.' + key;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package me.dags.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative values using power-of-two buckets.
+ * Percentiles are reported as the upper bound of the bucket they fall in.
+ *
+ * @author dags <dags@dags.me>
+ */
+public final class Histogram {
+
+    private final AtomicLongArray buckets = new AtomicLongArray(64);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a value
+     */
+    public void record(long value) {
+        value = Math.max(0L, value);
+        buckets.incrementAndGet(63 - Long.numberOfLeadingZeros(value | 1L));
+        count.increment();
+        sum.add(value);
+        for (long current = max.get(); value > current; current = max.get()) {
+            if (max.compareAndSet(current, value)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * The number of recorded values
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * The sum of all recorded values
+     */
+    public long sum() {
+        return sum.sum();
+    }
+
+    /**
+     * The largest recorded value
+     */
+    public long max() {
+        return max.get();
+    }
+
+    /**
+     * The mean of all recorded values
+     */
+    public double mean() {
+        long count = count();
+        return count == 0 ? 0D : sum() / (double) count;
+    }
+
+    /**
+     * The approximate value below which the given fraction (0 to 1) of recorded values fall
+     */
+    public long percentile(double fraction) {
+        long count = count();
+        if (count == 0) {
+            return 0L;
+        }
+        long target = (long) Math.ceil(count * fraction);
+        long seen = 0;
+        for (int i = 0; i < 64; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                return Math.min(max(), i == 63 ? Long.MAX_VALUE : (1L << (i + 1)) - 1);
+            }
+        }
+        return max();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.1f, p50=%d, p99=%d, max=%d", count(), mean(), percentile(0.5), percentile(0.99), max());
+    }
+}
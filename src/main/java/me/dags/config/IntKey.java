@@ -0,0 +1,45 @@
+package me.dags.config;
+
+/**
+ * A cached int value read from a named child of a Node
+ *
+ * @author dags <dags@dags.me>
+ */
+public final class IntKey extends Key {
+
+    private final int def;
+    private volatile Value current;
+
+    IntKey(Node parent, String key, int def) {
+        super(parent, key);
+        this.def = def;
+    }
+
+    /**
+     * Get the current value
+     */
+    public int get() {
+        Value value = current;
+        long changes = changes();
+        if (value == null || value.changes != changes) {
+            current = value = new Value(changes, node().get(def));
+        }
+        return value.value;
+    }
+
+    @Override
+    public String toString() {
+        return key() + "=" + get();
+    }
+
+    private static final class Value {
+
+        private final long changes;
+        private final int value;
+
+        private Value(long changes, int value) {
+            this.changes = changes;
+            this.value = value;
+        }
+    }
+}
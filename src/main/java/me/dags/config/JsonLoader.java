@@ -0,0 +1,331 @@
+package me.dags.config;
+
+import ninja.leaping.configurate.ConfigurationNode;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads and saves compact JSON. Comments are not preserved.
+ *
+ * @author dags <dags@dags.me>
+ */
+final class JsonLoader extends FileLoader {
+
+    JsonLoader(Path source, Path sink) {
+        super(source, sink);
+    }
+
+    @Override
+    void read(Path source, CommentedConfigurationNode root) throws IOException {
+        String json = new String(Files.readAllBytes(source), StandardCharsets.UTF_8);
+        Parser parser = new Parser(json);
+        parser.skipWhitespace();
+        if (parser.pos == json.length()) {
+            return;
+        }
+        parser.value(root);
+        parser.skipWhitespace();
+        if (parser.pos != json.length()) {
+            throw parser.error("Unexpected trailing content");
+        }
+    }
+
+    @Override
+    void write(ConfigurationNode root, Path sink) throws IOException {
+        try (Writer writer = writer(sink)) {
+            write(root, writer);
+        }
+    }
+
+    private static void write(ConfigurationNode node, Writer out) throws IOException {
+        if (node.hasMapChildren()) {
+            out.write('{');
+            boolean first = true;
+            for (Map.Entry<Object, ? extends ConfigurationNode> e : node.getChildrenMap().entrySet()) {
+                if (!first) {
+                    out.write(',');
+                }
+                first = false;
+                string(e.getKey().toString(), out);
+                out.write(':');
+                write(e.getValue(), out);
+            }
+            out.write('}');
+            return;
+        }
+
+        if (node.hasListChildren()) {
+            out.write('[');
+            boolean first = true;
+            for (ConfigurationNode child : node.getChildrenList()) {
+                if (!first) {
+                    out.write(',');
+                }
+                first = false;
+                write(child, out);
+            }
+            out.write(']');
+            return;
+        }
+
+        Object value = node.getValue();
+        if (value == null) {
+            out.write("null");
+        } else if (value instanceof Map) {
+            out.write("{}");
+        } else if (value instanceof List) {
+            out.write("[]");
+        } else if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            out.write(Double.isNaN(d) || Double.isInfinite(d) ? "null" : value.toString());
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.write(value.toString());
+        } else {
+            string(value.toString(), out);
+        }
+    }
+
+    private static void string(String value, Writer out) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                case '\b':
+                    out.write("\\b");
+                    break;
+                case '\f':
+                    out.write("\\f");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+
+    private static final class Parser {
+
+        private final String in;
+        private int pos;
+
+        private Parser(String in) {
+            this.in = in;
+        }
+
+        private void value(CommentedConfigurationNode node) throws IOException {
+            skipWhitespace();
+            char c = peek();
+            switch (c) {
+                case '{':
+                    object(node);
+                    return;
+                case '[':
+                    array(node);
+                    return;
+                case '"':
+                    node.setValue(string());
+                    return;
+                case 't':
+                    literal("true");
+                    node.setValue(true);
+                    return;
+                case 'f':
+                    literal("false");
+                    node.setValue(false);
+                    return;
+                case 'n':
+                    literal("null");
+                    return;
+                default:
+                    node.setValue(number());
+            }
+        }
+
+        private void object(CommentedConfigurationNode node) throws IOException {
+            pos++;
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                node.setValue(Collections.emptyMap());
+                return;
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') {
+                    throw error("Expected key");
+                }
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                value(node.getNode(key));
+                skipWhitespace();
+                char c = next();
+                if (c == '}') {
+                    return;
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or '}'");
+                }
+            }
+        }
+
+        private void array(CommentedConfigurationNode node) throws IOException {
+            pos++;
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+                node.setValue(Collections.emptyList());
+                return;
+            }
+            while (true) {
+                value(node.getAppendedNode());
+                skipWhitespace();
+                char c = next();
+                if (c == ']') {
+                    return;
+                }
+                if (c != ',') {
+                    throw error("Expected ',' or ']'");
+                }
+            }
+        }
+
+        private String string() throws IOException {
+            pos++;
+            StringBuilder builder = null;
+            int start = pos;
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return builder == null ? in.substring(start, pos - 1) : builder.toString();
+                }
+                if (c != '\\') {
+                    if (builder != null) {
+                        builder.append(c);
+                    }
+                    continue;
+                }
+                if (builder == null) {
+                    builder = new StringBuilder(in.substring(start, pos - 1));
+                }
+                char escape = next();
+                switch (escape) {
+                    case 'n':
+                        builder.append('\n');
+                        break;
+                    case 'r':
+                        builder.append('\r');
+                        break;
+                    case 't':
+                        builder.append('\t');
+                        break;
+                    case 'b':
+                        builder.append('\b');
+                        break;
+                    case 'f':
+                        builder.append('\f');
+                        break;
+                    case 'u':
+                        if (pos + 4 > in.length()) {
+                            throw error("Truncated unicode escape");
+                        }
+                        builder.append((char) Integer.parseInt(in.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default:
+                        builder.append(escape);
+                }
+            }
+        }
+
+        private Number number() throws IOException {
+            int start = pos;
+            boolean decimal = false;
+            while (pos < in.length()) {
+                char c = in.charAt(pos);
+                if (c == '.' || c == 'e' || c == 'E') {
+                    decimal = true;
+                } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                    break;
+                }
+                pos++;
+            }
+            String number = in.substring(start, pos);
+            try {
+                if (decimal) {
+                    return Double.parseDouble(number);
+                }
+                long value = Long.parseLong(number);
+                if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                    return (int) value;
+                }
+                return value;
+            } catch (NumberFormatException e) {
+                throw error("Invalid number '" + number + "'");
+            }
+        }
+
+        private void literal(String literal) throws IOException {
+            if (!in.startsWith(literal, pos)) {
+                throw error("Expected " + literal);
+            }
+            pos += literal.length();
+        }
+
+        private void expect(char c) throws IOException {
+            if (next() != c) {
+                throw error("Expected '" + c + "'");
+            }
+        }
+
+        private char peek() throws IOException {
+            if (pos >= in.length()) {
+                throw error("Unexpected end of input");
+            }
+            return in.charAt(pos);
+        }
+
+        private char next() throws IOException {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        private void skipWhitespace() {
+            while (pos < in.length() && Character.isWhitespace(in.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IOException error(String message) {
+            return new IOException(message + " at position " + pos);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package me.dags.config;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base for cached value handles. The value is converted once and re-read only after
+ * a change to the key's subtree has been reported by the Node's tracker.
+ * Values are resolved from the tree's current root, so a key keeps working after its Config is reloaded.
+ *
+ * @author dags <dags@dags.me>
+ */
+abstract class Key {
+
+    private final Tracker tracker;
+    private final Object[] path;
+    private final String key;
+    private final AtomicLong changes = new AtomicLong();
+    private final Node.Subscription subscription;
+
+    Key(Node parent, String key) {
+        this.tracker = parent.tracker;
+        this.path = parent.absolute(key);
+        this.key = key;
+        this.subscription = tracker.subscribe(path, null, changes -> this.changes.incrementAndGet());
+    }
+
+    /**
+     * The name of the value within its parent node
+     */
+    public String key() {
+        return key;
+    }
+
+    /**
+     * The node currently holding the value
+     */
+    public Node node() {
+        return tracker.node(path);
+    }
+
+    /**
+     * Stop tracking changes for this key. Further reads will not see changes.
+     */
+    public void release() {
+        subscription.cancel();
+    }
+
+    /**
+     * The number of changes reported for the key so far. Cached values are stamped with the count
+     * read before they were converted, and are re-read once it no longer matches.
+     */
+    final long changes() {
+        return changes.get();
+    }
+}
@@ -0,0 +1,146 @@
+package me.dags.config;
+
+import com.typesafe.config.*;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.commented.SimpleCommentedConfigurationNode;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holds a parsed HOCON document and converts each top-level entry to a configuration node only
+ * when it is first accessed. The parsed document is released once every entry has been converted.
+ *
+ * @author dags <dags@dags.me>
+ */
+final class LazyHocon {
+
+    private final Map<String, ConfigValue> pending;
+    private volatile boolean empty;
+
+    private LazyHocon(Map<String, ConfigValue> pending) {
+        this.pending = pending;
+        this.empty = pending.isEmpty();
+    }
+
+    /**
+     * Check if every entry has been converted
+     */
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Convert the top-level entry under the given key if it hasn't been already
+     */
+    void load(CommentedConfigurationNode root, Object key) {
+        if (empty || key == null) {
+            return;
+        }
+        synchronized (this) {
+            ConfigValue value = pending.remove(key.toString());
+            if (value != null) {
+                read(value, root.getNode(key.toString()));
+                empty = pending.isEmpty();
+            }
+        }
+    }
+
+    /**
+     * Convert all remaining top-level entries
+     */
+    void loadAll(CommentedConfigurationNode root) {
+        if (empty) {
+            return;
+        }
+        synchronized (this) {
+            for (Map.Entry<String, ConfigValue> e : pending.entrySet()) {
+                read(e.getValue(), root.getNode(e.getKey()));
+            }
+            pending.clear();
+            empty = true;
+        }
+    }
+
+    /**
+     * The keys of the top-level entries that have not been converted
+     */
+    synchronized List<String> pendingKeys() {
+        return new ArrayList<>(pending.keySet());
+    }
+
+    /**
+     * Convert the top-level entry under the given key into a detached node, leaving it pending.
+     * Returns null if the entry has already been converted.
+     */
+    synchronized CommentedConfigurationNode peek(String key) {
+        ConfigValue value = pending.get(key);
+        if (value == null) {
+            return null;
+        }
+        CommentedConfigurationNode node = SimpleCommentedConfigurationNode.root();
+        read(value, node);
+        return node;
+    }
+
+    /**
+     * Drop the top-level entry under the given key without converting it
+     */
+    synchronized void discard(String key) {
+        pending.remove(key);
+        empty = pending.isEmpty();
+    }
+
+    /**
+     * Parse the file without converting it. Returns null if the file cannot be read or parsed.
+     */
+    static LazyHocon parse(Path path) {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            ConfigObject root = ConfigFactory.parseReader(reader).resolve().root();
+            return new LazyHocon(new LinkedHashMap<>(root));
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private static void read(ConfigValue value, CommentedConfigurationNode node) {
+        List<String> comments = value.origin().comments();
+        if (!comments.isEmpty()) {
+            node.setComment(String.join("\n", comments).replace("\r", ""));
+        }
+
+        switch (value.valueType()) {
+            case OBJECT:
+                ConfigObject object = (ConfigObject) value;
+                if (object.isEmpty()) {
+                    node.setValue(Collections.emptyMap());
+                    return;
+                }
+                for (Map.Entry<String, ConfigValue> e : object.entrySet()) {
+                    read(e.getValue(), node.getNode(e.getKey()));
+                }
+                return;
+            case LIST:
+                ConfigList list = (ConfigList) value;
+                if (list.isEmpty()) {
+                    node.setValue(Collections.emptyList());
+                    return;
+                }
+                for (int i = 0; i < list.size(); i++) {
+                    read(list.get(i), node.getNode(i));
+                }
+                return;
+            case NULL:
+                return;
+            default:
+                node.setValue(value.unwrapped());
+        }
+    }
+}
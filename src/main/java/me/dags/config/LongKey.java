@@ -0,0 +1,45 @@
+package me.dags.config;
+
+/**
+ * A cached long value read from a named child of a Node
+ *
+ * @author dags <dags@dags.me>
+ */
+public final class LongKey extends Key {
+
+    private final long def;
+    private volatile Value current;
+
+    LongKey(Node parent, String key, long def) {
+        super(parent, key);
+        this.def = def;
+    }
+
+    /**
+     * Get the current value
+     */
+    public long get() {
+        Value value = current;
+        long changes = changes();
+        if (value == null || value.changes != changes) {
+            current = value = new Value(changes, node().get(def));
+        }
+        return value.value;
+    }
+
+    @Override
+    public String toString() {
+        return key() + "=" + get();
+    }
+
+    private static final class Value {
+
+        private final long changes;
+        private final long value;
+
+        private Value(long changes, long value) {
+            this.changes = changes;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package me.dags.config;
+
+import com.google.common.reflect.TypeToken;
+import ninja.leaping.configurate.ConfigurationNode;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.objectmapping.ObjectMappingException;
+import ninja.leaping.configurate.objectmapping.Setting;
+import ninja.leaping.configurate.objectmapping.serialize.TypeSerializer;
+import ninja.leaping.configurate.objectmapping.serialize.TypeSerializerCollection;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A precompiled field plan for binding @Setting annotated fields of a type to/from a node.
+ * Follows the semantics of Configurate's ObjectMapper but resolves all reflective lookups once.
+ *
+ * @author dags <dags@dags.me>
+ */
+final class Mapper<T> {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR = MethodType.methodType(Object.class);
+
+    private final Class<T> type;
+    private final MethodHandle constructor;
+    private final FieldPlan[] fields;
+
+    Mapper(Class<T> type) throws ObjectMappingException {
+        List<FieldPlan> fields = new ArrayList<>();
+        collectFields(type, fields);
+        this.type = type;
+        this.constructor = constructor(type);
+        this.fields = fields.toArray(new FieldPlan[fields.size()]);
+    }
+
+    /**
+     * Create a new instance of T using its zero-arg constructor
+     */
+    T newInstance() throws ObjectMappingException {
+        if (constructor == null) {
+            throw new ObjectMappingException("No zero-arg constructor is available for class " + type + " but is required to construct new instances!");
+        }
+        try {
+            return type.cast(constructor.invokeExact());
+        } catch (Throwable t) {
+            throw new ObjectMappingException("Unable to create instance of target class " + type, t);
+        }
+    }
+
+    /**
+     * Populate the instance's fields from the node, writing back any defaults for absent values.
+     * Returns true if any defaults were written to the node.
+     */
+    boolean populate(T instance, ConfigurationNode node) throws ObjectMappingException {
+        boolean modified = false;
+        for (FieldPlan field : fields) {
+            modified |= field.deserializeFrom(instance, node.getNode(field.key));
+        }
+        return modified;
+    }
+
+    /**
+     * Write the instance's fields to the node
+     */
+    void serialize(T instance, ConfigurationNode node) throws ObjectMappingException {
+        for (FieldPlan field : fields) {
+            field.serializeTo(instance, node.getNode(field.key));
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> type) {
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return LOOKUP.unreflectConstructor(constructor).asType(CONSTRUCTOR);
+        } catch (NoSuchMethodException | IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static void collectFields(Class<?> type, List<FieldPlan> fields) throws ObjectMappingException {
+        for (Field field : type.getDeclaredFields()) {
+            Setting setting = field.getAnnotation(Setting.class);
+            if (setting == null || Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            String key = setting.value().isEmpty() ? field.getName() : setting.value();
+            fields.add(new FieldPlan(field, key, setting.comment()));
+        }
+        Class<?> parent = type.getSuperclass();
+        if (parent != null && parent != Object.class) {
+            collectFields(parent, fields);
+        }
+    }
+
+    private static final class FieldPlan {
+
+        private final String name;
+        private final String key;
+        private final String comment;
+        private final TypeToken<?> type;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        private volatile Serial serial;
+
+        private FieldPlan(Field field, String key, String comment) throws ObjectMappingException {
+            this.name = field.getName();
+            this.key = key;
+            this.comment = comment;
+            this.type = TypeToken.of(field.getGenericType());
+            try {
+                field.setAccessible(true);
+                this.getter = LOOKUP.unreflectGetter(field).asType(GETTER);
+                this.setter = setter(field);
+            } catch (IllegalAccessException | NoSuchMethodException | RuntimeException e) {
+                throw new ObjectMappingException("Unable to access field " + name + " of " + field.getDeclaringClass(), e);
+            }
+        }
+
+        private boolean deserializeFrom(Object instance, ConfigurationNode node) throws ObjectMappingException {
+            TypeSerializer<Object> serializer = serializer(node);
+            Object value = node.isVirtual() ? null : serializer.deserialize(type, node);
+            if (value == null) {
+                if (get(instance) != null) {
+                    serializeTo(instance, node);
+                    return true;
+                }
+            } else {
+                set(instance, value);
+            }
+            return false;
+        }
+
+        private void serializeTo(Object instance, ConfigurationNode node) throws ObjectMappingException {
+            Object value = get(instance);
+            if (value == null) {
+                node.setValue(null);
+            } else {
+                serializer(node).serialize(type, value, node);
+            }
+
+            if (node instanceof CommentedConfigurationNode && !comment.isEmpty()) {
+                CommentedConfigurationNode commented = (CommentedConfigurationNode) node;
+                if (!commented.getComment().isPresent()) {
+                    commented.setComment(comment);
+                }
+            }
+        }
+
+        private Object get(Object instance) throws ObjectMappingException {
+            try {
+                return (Object) getter.invokeExact(instance);
+            } catch (Throwable t) {
+                throw new ObjectMappingException("Unable to read field " + name, t);
+            }
+        }
+
+        private void set(Object instance, Object value) throws ObjectMappingException {
+            try {
+                setter.invokeExact(instance, value);
+            } catch (Throwable t) {
+                throw new ObjectMappingException("Unable to write field " + name, t);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private TypeSerializer<Object> serializer(ConfigurationNode node) throws ObjectMappingException {
+            TypeSerializerCollection collection = node.getOptions().getSerializers();
+            Serial serial = this.serial;
+            if (serial == null || serial.collection != collection) {
+                TypeSerializer<?> serializer = collection.get(type);
+                if (serializer == null) {
+                    throw new ObjectMappingException("No TypeSerializer found for field " + name + " of type " + type);
+                }
+                this.serial = serial = new Serial(collection, (TypeSerializer<Object>) serializer);
+            }
+            return serial.serializer;
+        }
+
+        private static MethodHandle setter(Field field) throws IllegalAccessException, NoSuchMethodException {
+            try {
+                return LOOKUP.unreflectSetter(field).asType(SETTER);
+            } catch (IllegalAccessException e) {
+                // final fields can only be written reflectively
+                MethodHandle set = LOOKUP.findVirtual(Field.class, "set", MethodType.methodType(void.class, Object.class, Object.class));
+                return set.bindTo(field).asType(SETTER);
+            }
+        }
+    }
+
+    private static final class Serial {
+
+        private final TypeSerializerCollection collection;
+        private final TypeSerializer<Object> serializer;
+
+        private Serial(TypeSerializerCollection collection, TypeSerializer<Object> serializer) {
+            this.collection = collection;
+            this.serializer = serializer;
+        }
+    }
+}
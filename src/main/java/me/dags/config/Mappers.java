@@ -0,0 +1,90 @@
+package me.dags.config;
+
+import ninja.leaping.configurate.objectmapping.ObjectMappingException;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Type-indexed cache of the generated binders and field plans used by Node.bind and Node.copy
+ *
+ * @author dags <dags@dags.me>
+ */
+public final class Mappers {
+
+    private static final Object NONE = new Object();
+    private static final LongAdder lookups = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static final ClassValue<Object> mappers = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> type) {
+            misses.increment();
+            try {
+                return new Mapper<>(type);
+            } catch (ObjectMappingException e) {
+                return e;
+            }
+        }
+    };
+
+    private static final ClassValue<Object> binders = new ClassValue<Object>() {
+        @Override
+        protected Object computeValue(Class<?> type) {
+            if (!type.isAnnotationPresent(Binding.class)) {
+                return NONE;
+            }
+            try {
+                Class<?> binder = Class.forName(binderName(type), true, type.getClassLoader());
+                return binder.getConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return NONE;
+            }
+        }
+    };
+
+    private Mappers() {
+
+    }
+
+    /**
+     * The number of lookups that were served by an existing mapper
+     */
+    public static long hits() {
+        return lookups.sum() - misses.sum();
+    }
+
+    /**
+     * The number of lookups that required a new mapper to be built
+     */
+    public static long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * The name of the class generated for the given @Binding type
+     */
+    static String binderName(Class<?> type) {
+        return type.getName().replace('$', '_') + "_Binder";
+    }
+
+    /**
+     * Get the generated binder for the given type, or null if the type has none
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Binder<T> binder(Class<T> type) {
+        Object binder = binders.get(type);
+        return binder == NONE ? null : (Binder<T>) binder;
+    }
+
+    /**
+     * Get the cached mapper for the given type
+     */
+    @SuppressWarnings("unchecked")
+    static <T> Mapper<T> get(Class<T> type) throws ObjectMappingException {
+        lookups.increment();
+        Object mapper = mappers.get(type);
+        if (mapper instanceof ObjectMappingException) {
+            throw (ObjectMappingException) mapper;
+        }
+        return (Mapper<T>) mapper;
+    }
+}
@@ -0,0 +1,67 @@
+package me.dags.config;
+
+import java.nio.file.Path;
+
+/**
+ * Receives timings and counts from config I/O and binding.
+ * Register with Config.metrics(..); all methods are optional.
+ *
+ * @author dags <dags@dags.me>
+ */
+public interface Metrics {
+
+    /**
+     * Called after a config file has been loaded (parsed or decoded from a snapshot)
+     *
+     * @param path  the config file
+     * @param nanos the time taken to load the file
+     * @param bytes the size of the file
+     */
+    default void read(Path path, long nanos, long bytes) {
+    }
+
+    /**
+     * Called after a config file has been written
+     *
+     * @param path  the config file
+     * @param nanos the time taken to write the file
+     * @param bytes the size of the written file
+     */
+    default void write(Path path, long nanos, long bytes) {
+    }
+
+    /**
+     * Called after a node has been bound to a new instance of a type
+     *
+     * @param type  the bound type
+     * @param nanos the time taken to bind the instance
+     */
+    default void bind(Class<?> type, long nanos) {
+    }
+
+    /**
+     * Called when a config is reloaded from disk
+     *
+     * @param path the config file
+     */
+    default void reload(Path path) {
+    }
+
+    /**
+     * Called when a config file fails to parse and an empty or backup tree is used instead
+     *
+     * @param path  the config file
+     * @param error the parse error
+     */
+    default void parseFailure(Path path, Throwable error) {
+    }
+
+    /**
+     * Called when a config file fails to be written
+     *
+     * @param path  the config file
+     * @param error the write error
+     */
+    default void writeFailure(Path path, Throwable error) {
+    }
+}
@@ -2,85 +2,137 @@ package me.dags.config;
 
 import com.google.common.reflect.TypeToken;
 import ninja.leaping.configurate.ConfigurationOptions;
+import ninja.leaping.configurate.Types;
 import ninja.leaping.configurate.commented.CommentedConfigurationNode;
 import ninja.leaping.configurate.commented.SimpleCommentedConfigurationNode;
-import ninja.leaping.configurate.objectmapping.ObjectMapper;
 import ninja.leaping.configurate.objectmapping.ObjectMappingException;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
+ * Keys are used literally by node(..), set(..) and the other writing methods. The get(String, ..) readers
+ * also accept a dotted path (ie "a.b.c"): when no child exists under the literal key and the path has no
+ * empty segments, they read the nested child at the path if it exists. Otherwise they behave as if the
+ * key were literal, so a missing value's default is written under the literal key.
+ *
  * @author dags <dags@dags.me>
  */
 public class Node {
 
     static final ConfigurationOptions DEFAULT_OPTIONS = ConfigurationOptions.defaults().setShouldCopyDefaults(true);
 
-    private CommentedConfigurationNode node;
+    final Tracker tracker;
+    private volatile CommentedConfigurationNode node;
+    private volatile PathIndex index;
 
     Node(CommentedConfigurationNode node) {
+        this(node, new Tracker());
+        tracker.root = this;
+    }
+
+    Node(CommentedConfigurationNode node, Tracker tracker) {
         this.node = node;
+        this.tracker = tracker;
     }
 
-    synchronized void setNode(CommentedConfigurationNode node) {
+    /**
+     * Publish a new backing node. The node must be fully populated before it is passed in
+     * as readers see it as soon as this returns.
+     */
+    void setNode(CommentedConfigurationNode node) {
         this.node = node;
     }
 
+    /**
+     * The current backing node, without loading any deferred content
+     */
+    CommentedConfigurationNode raw() {
+        return node;
+    }
+
     /**
      * Get the ConfigurationNode backing this node
      */
-    public synchronized CommentedConfigurationNode backing() {
+    public CommentedConfigurationNode backing() {
         return node;
     }
 
     /**
-     * Add all elements to this List-backed node (adds to the current List)
+     * Add all elements to this List-backed node (appends to the current List in place)
      */
     public void addAll(Iterable<?> elements) {
-        List<CommentedConfigurationNode> list = new ArrayList<>(backing().getChildrenList());
+        CommentedConfigurationNode backing = backing();
         for (Object value : elements) {
-            Node node;
-            if (value instanceof CommentedConfigurationNode) {
-                list.add((CommentedConfigurationNode) value);
-                continue;
+            Object element = element(value);
+            if (element != null) {
+                backing.getAppendedNode().setValue(element);
             }
-
-            if (value instanceof Node) {
-                node = (Node) value;
-            } else if (value instanceof Serializable) {
-                node = Node.create();
-                ((Serializable) value).toNode(node);
-            } else {
-                try {
-                    node = Node.create();
-                    node.set(value);
-                } catch (IllegalArgumentException iae) {
-                    continue;
-                }
-            }
-            list.add(node.backing());
         }
-        backing().setValue(list);
+        tracker.changed(backing);
+    }
+
+    /**
+     * Apply a number of changes to this node, notifying listeners once with a single ChangeSet when they complete
+     */
+    public Node edit(Consumer<Node> batch) {
+        tracker.batch(() -> batch.accept(this));
+        return this;
     }
 
     /**
      * Instantiate and populate a new value of type T
      */
     public <T> T bind(Class<T> type, T def) {
-        ObjectMapper<T> mapper;
+        long start = Stats.start();
+        try {
+            return bindOrDefault(type, def);
+        } finally {
+            Stats.bind(type, start);
+        }
+    }
+
+    /**
+     * Instantiate and populate a new value of type T
+     */
+    public <T> T bind(Class<T> type, Supplier<T> def) {
+        long start = Stats.start();
+        try {
+            return bindOrSupply(type, def);
+        } finally {
+            Stats.bind(type, start);
+        }
+    }
+
+    private <T> T bindOrDefault(Class<T> type, T def) {
+        Binder<T> binder = Mappers.binder(type);
+        if (binder != null) {
+            return bindWith(binder, () -> def);
+        }
+
+        Mapper<T> mapper;
 
         try {
-            mapper = ObjectMapper.forClass(type);
+            mapper = Mappers.get(type);
             try {
-                return mapper.bindToNew().populate(backing());
+                T value = mapper.newInstance();
+                if (mapper.populate(value, backing())) {
+                    tracker.changed(backing());
+                }
+                return value;
             } catch (ObjectMappingException e) {
                 if (def != null) {
-                    mapper.bind(def).serialize(backing());
+                    mapper.serialize(def, backing());
+                    tracker.changed(backing());
                 }
                 return def;
             }
@@ -91,19 +143,26 @@ public class Node {
         return def;
     }
 
-    /**
-     * Instantiate and populate a new value of type T
-     */
-    public <T> T bind(Class<T> type, Supplier<T> def) {
-        ObjectMapper<T> mapper;
+    private <T> T bindOrSupply(Class<T> type, Supplier<T> def) {
+        Binder<T> binder = Mappers.binder(type);
+        if (binder != null) {
+            return bindWith(binder, def);
+        }
+
+        Mapper<T> mapper;
 
         try {
-            mapper = ObjectMapper.forClass(type);
+            mapper = Mappers.get(type);
             try {
-                return mapper.bindToNew().populate(backing());
+                T value = mapper.newInstance();
+                if (mapper.populate(value, backing())) {
+                    tracker.changed(backing());
+                }
+                return value;
             } catch (ObjectMappingException e) {
                 T val = def.get();
-                mapper.bind(val).serialize(backing());
+                mapper.serialize(val, backing());
+                tracker.changed(backing());
                 return val;
             }
         } catch (ObjectMappingException e) {
@@ -113,28 +172,43 @@ public class Node {
         return def.get();
     }
 
+    private <T> T bindWith(Binder<T> binder, Supplier<T> def) {
+        return tracker.batch(() -> {
+            try {
+                return binder.fromNode(this);
+            } catch (RuntimeException e) {
+                T val = def.get();
+                if (val != null) {
+                    binder.toNode(val, this);
+                }
+                return val;
+            }
+        });
+    }
+
     /**
-     * Get a List view of the node's children
+     * Get a read-only List view of the node's children.
+     * Children are wrapped as they are accessed.
      */
     public List<Node> childList() {
-        return backing().getChildrenList().stream()
-                .map(Node::new)
-                .collect(Collectors.toList());
+        return Views.list(backing().getChildrenList(), this::child);
     }
 
     /**
-     * Get a Map view of the node's children
+     * Get a read-only Map view of the node's children.
+     * Children are wrapped as they are accessed.
      */
     public Map<Object, Node> childMap() {
-        return backing().getChildrenMap().entrySet().stream()
-                .collect(Collectors.toMap(Map.Entry::getKey, e -> new Node(e.getValue())));
+        return Views.map(backing().getChildrenMap(), this::child);
     }
 
     /**
      * Clear the value on this node
      */
     public Node clear() {
-        backing().setValue(null);
+        CommentedConfigurationNode backing = backing();
+        backing.setValue(null);
+        tracker.changed(backing);
         return this;
     }
 
@@ -157,7 +231,9 @@ public class Node {
      * Set the comment on this node
      */
     public Node comment(String comment) {
-        backing().setComment(comment);
+        CommentedConfigurationNode backing = backing();
+        backing.setComment(comment);
+        tracker.changed(backing);
         return this;
     }
 
@@ -165,9 +241,22 @@ public class Node {
      * Copy the given object to this node
      */
     public <T> boolean copy(T instance) {
+        @SuppressWarnings("unchecked")
+        Binder<T> binder = Mappers.binder((Class<T>) instance.getClass());
+        if (binder != null) {
+            try {
+                tracker.batch(() -> binder.toNode(instance, this));
+                return true;
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+
         try {
-            ObjectMapper<T>.BoundInstance mapper = ObjectMapper.forObject(instance);
-            mapper.serialize(backing());
+            @SuppressWarnings("unchecked")
+            Mapper<T> mapper = (Mapper<T>) Mappers.get(instance.getClass());
+            mapper.serialize(instance, backing());
+            tracker.changed(backing());
             return true;
         } catch (ObjectMappingException e) {
             return false;
@@ -178,46 +267,46 @@ public class Node {
      * Get the value of this node
      */
     public boolean get(boolean def) {
-        return backing().getBoolean(def);
+        return read(backing(), def);
     }
 
     /**
      * Get the value of this node
      */
     public float get(float def) {
-        return backing().getFloat(def);
+        return read(backing(), def);
     }
 
     /**
      * Get the value of this node
      */
     public double get(double def) {
-        return backing().getDouble(def);
+        return read(backing(), def);
     }
 
     /**
      * Get the value of this node
      */
     public int get(int def) {
-        return backing().getInt(def);
+        return read(backing(), def);
     }
 
     /**
      * Get the value of this node
      */
     public long get(long def) {
-        return backing().getLong(def);
+        return read(backing(), def);
     }
 
     /**
      * Get the value of this node
      */
     public String get(String def) {
-        return backing().getString(def);
+        return read(backing(), def);
     }
 
     public <T extends Enum<T>> T get(T def) {
-        String value = backing().getString("");
+        String value = read(backing(), "");
         for (Enum e : def.getClass().getEnumConstants()) {
             if (e.name().equals(value)) {
                 return def.getDeclaringClass().cast(e);
@@ -227,7 +316,7 @@ public class Node {
     }
 
     public <T extends Enum<T>> T get(Class<T> type) {
-        String value = backing().getString("");
+        String value = read(backing(), "");
         return Enum.valueOf(type, value);
     }
 
@@ -242,10 +331,14 @@ public class Node {
      * Get the value of this node
      */
     public <T> T get(TypeToken<T> token, T def) {
+        CommentedConfigurationNode backing = backing();
+        boolean virtual = backing.isVirtual();
         try {
-            return backing().getValue(token, def);
+            return backing.getValue(token, def);
         } catch (ObjectMappingException e) {
             return def;
+        } finally {
+            defaulted(backing, virtual);
         }
     }
 
@@ -253,87 +346,91 @@ public class Node {
      * Get the value of this node
      */
     public <T> T get(TypeToken<T> token, Supplier<T> def) {
+        CommentedConfigurationNode backing = backing();
+        boolean virtual = backing.isVirtual();
         try {
-            return backing().getValue(token, def);
+            return backing.getValue(token, def);
         } catch (ObjectMappingException e) {
             return def.get();
+        } finally {
+            defaulted(backing, virtual);
         }
     }
 
     /**
-     * Get the named value of this node
+     * Get the named value of this node, or the value at the dotted path if there is no such key
      */
     public boolean get(String key, boolean def) {
-        return backing().getNode(key).getBoolean(def);
+        return read(find(key), def);
     }
 
     /**
-     * Get the named value of this node
+     * Get the named value of this node, or the value at the dotted path if there is no such key
      */
     public float get(String key, float def) {
-        return backing().getNode(key).getFloat(def);
+        return read(find(key), def);
     }
 
     /**
-     * Get the named value of this node
+     * Get the named value of this node, or the value at the dotted path if there is no such key
      */
     public double get(String key, double def) {
-        return backing().getNode(key).getDouble(def);
+        return read(find(key), def);
     }
 
     /**
-     * Get the named value of this node
+     * Get the named value of this node, or the value at the dotted path if there is no such key
      */
     public int get(String key, int def) {
-        return backing().getNode(key).getInt(def);
+        return read(find(key), def);
     }
 
     /**
-     * Get the named value of this node
+     * Get the named value of this node, or the value at the dotted path if there is no such key
      */
     public long get(String key, long def) {
-        return backing().getNode(key).getLong(def);
+        return read(find(key), def);
     }
 
     /**
-     * Get the named value of this node
+     * Get the named value of this node, or the value at the dotted path if there is no such key
      */
     public String get(String key, String def) {
-        return backing().getNode(key).getString(def);
+        return read(find(key), def);
     }
 
     public <T extends Enum<T>> T get(String key, T def) {
-        return node(key).get(def);
+        return child(find(key)).get(def);
     }
 
     public <T extends Enum<T>> T get(String key, Class<T> type) {
-        return node(key).get(type);
+        return child(find(key)).get(type);
     }
 
     /**
-     * Get the named value of this node
+     * Get the named value of this node, or the value at the dotted path if there is no such key
      */
     public <T> T get(String key, Deserializable<T> def) {
-        return node(key).get(def);
+        return child(find(key)).get(def);
     }
 
     /**
-     * Get the named value of this node
+     * Get the named value of this node, or the value at the dotted path if there is no such key
      */
     public <T> T get(String key, TypeToken<T> token, T def) {
         try {
-            return backing().getNode(key).getValue(token);
+            return find(key).getValue(token);
         } catch (ObjectMappingException e) {
             return def;
         }
     }
 
     /**
-     * Get the named value of this node
+     * Get the named value of this node, or the value at the dotted path if there is no such key
      */
     public <T> T get(String key, TypeToken<T> token, Supplier<T> def) {
         try {
-            return backing().getNode(key).getValue(token);
+            return find(key).getValue(token);
         } catch (ObjectMappingException e) {
             return def.get();
         }
@@ -343,7 +440,91 @@ public class Node {
      * Get the named List of T using the provided mapper function
      */
     public <T> List<T> getList(String key, Function<Node, T> mapper) {
-        return node(key).getList(mapper);
+        return child(find(key)).getList(mapper);
+    }
+
+    /**
+     * Get the named List as an int array. Elements that aren't numbers are read as 0.
+     */
+    public int[] getIntArray(String key) {
+        return child(find(key)).getIntArray();
+    }
+
+    /**
+     * Get this List-backed node as an int array. Elements that aren't numbers are read as 0.
+     */
+    public int[] getIntArray() {
+        List<? extends CommentedConfigurationNode> children = backing().getChildrenList();
+        int[] array = new int[children.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = toInt(children.get(i).getValue());
+        }
+        return array;
+    }
+
+    /**
+     * Get the named List as a long array. Elements that aren't numbers are read as 0.
+     */
+    public long[] getLongArray(String key) {
+        return child(find(key)).getLongArray();
+    }
+
+    /**
+     * Get this List-backed node as a long array. Elements that aren't numbers are read as 0.
+     */
+    public long[] getLongArray() {
+        List<? extends CommentedConfigurationNode> children = backing().getChildrenList();
+        long[] array = new long[children.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = toLong(children.get(i).getValue());
+        }
+        return array;
+    }
+
+    /**
+     * Get the named List as a double array. Elements that aren't numbers are read as 0.
+     */
+    public double[] getDoubleArray(String key) {
+        return child(find(key)).getDoubleArray();
+    }
+
+    /**
+     * Get this List-backed node as a double array. Elements that aren't numbers are read as 0.
+     */
+    public double[] getDoubleArray() {
+        List<? extends CommentedConfigurationNode> children = backing().getChildrenList();
+        double[] array = new double[children.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = toDouble(children.get(i).getValue());
+        }
+        return array;
+    }
+
+    /**
+     * Visit each element of this List-backed node as an int. Elements that aren't numbers are read as 0.
+     */
+    public void forEachInt(IntConsumer consumer) {
+        for (CommentedConfigurationNode child : backing().getChildrenList()) {
+            consumer.accept(toInt(child.getValue()));
+        }
+    }
+
+    /**
+     * Visit each element of this List-backed node as a long. Elements that aren't numbers are read as 0.
+     */
+    public void forEachLong(LongConsumer consumer) {
+        for (CommentedConfigurationNode child : backing().getChildrenList()) {
+            consumer.accept(toLong(child.getValue()));
+        }
+    }
+
+    /**
+     * Visit each element of this List-backed node as a double. Elements that aren't numbers are read as 0.
+     */
+    public void forEachDouble(DoubleConsumer consumer) {
+        for (CommentedConfigurationNode child : backing().getChildrenList()) {
+            consumer.accept(toDouble(child.getValue()));
+        }
     }
 
     /**
@@ -361,27 +542,28 @@ public class Node {
      * Get the named Map of String/T pairs using the provided mapper function
      */
     public <T> Map<String, T> getMap(String key, Function<Node, T> mapper) {
-        return node(key).getMap(mapper);
+        return child(find(key)).getMap(mapper);
     }
 
     /**
-     * Get the Map of String/T pairs using the provided mapper function
+     * Get the Map of String/T pairs using the provided mapper function.
+     * The Map retains the order of the node's children.
      */
     public <T> Map<String, T> getMap(Function<Node, T> mapper) {
-        return backing().getChildrenMap().entrySet().stream()
-                .map(e -> {
-                    String key = e.getKey().toString();
-                    T value = mapper.apply(new Node(e.getValue()));
-                    return new HashMap.SimpleEntry<>(key, value);
-                })
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        Map<Object, ? extends CommentedConfigurationNode> children = backing().getChildrenMap();
+        Map<String, T> map = new LinkedHashMap<>(Math.max(16, (int) (children.size() / 0.75F) + 1));
+        for (Map.Entry<Object, ? extends CommentedConfigurationNode> e : children.entrySet()) {
+            map.put(e.getKey().toString(), mapper.apply(child(e.getValue())));
+        }
+        return map;
     }
 
     /**
      * Check if the node value is null/empty
      */
     public boolean isEmpty() {
-        return backing().getValue() == null || (!backing().hasListChildren() && !backing().hasMapChildren());
+        CommentedConfigurationNode backing = backing();
+        return backing.getValue() == null || (!backing.hasListChildren() && !backing.hasMapChildren());
     }
 
     /**
@@ -395,11 +577,16 @@ public class Node {
      * Iterate over the node's list or map values
      */
     public void iterate(Consumer<Node> consumer) {
-        if (backing().hasListChildren()) {
-            backing().getChildrenList().stream().map(Node::new).forEach(consumer);
+        CommentedConfigurationNode backing = backing();
+        if (backing.hasListChildren()) {
+            for (CommentedConfigurationNode child : backing.getChildrenList()) {
+                consumer.accept(child(child));
+            }
         }
-        if (backing().hasMapChildren()) {
-            backing().getChildrenMap().values().stream().map(Node::new).forEach(consumer);
+        if (backing.hasMapChildren()) {
+            for (CommentedConfigurationNode child : backing.getChildrenMap().values()) {
+                consumer.accept(child(child));
+            }
         }
     }
 
@@ -407,67 +594,222 @@ public class Node {
      * Iterate over the node's key/value pairs
      */
     public void iterate(BiConsumer<Object, Node> consumer) {
-        if (backing().hasMapChildren()) {
-            backing().getChildrenMap().forEach((key, value) -> {
-                Node node = new Node(value);
-                consumer.accept(key, node);
-            });
+        CommentedConfigurationNode backing = backing();
+        if (backing.hasMapChildren()) {
+            for (Map.Entry<Object, ? extends CommentedConfigurationNode> e : backing.getChildrenMap().entrySet()) {
+                consumer.accept(e.getKey(), child(e.getValue()));
+            }
         }
     }
 
+    /**
+     * Visit the node's list or map values without allocating a Node per child.
+     * The Node passed to the consumer is reused for every child and must not be retained.
+     */
+    public void visit(Consumer<Node> consumer) {
+        CommentedConfigurationNode backing = backing();
+        Node cursor = child(backing);
+        if (backing.hasListChildren()) {
+            for (CommentedConfigurationNode child : backing.getChildrenList()) {
+                cursor.setNode(child);
+                consumer.accept(cursor);
+            }
+        }
+        if (backing.hasMapChildren()) {
+            for (CommentedConfigurationNode child : backing.getChildrenMap().values()) {
+                cursor.setNode(child);
+                consumer.accept(cursor);
+            }
+        }
+    }
+
+    /**
+     * Visit the node's key/value pairs without allocating a Node per child.
+     * The Node passed to the consumer is reused for every child and must not be retained.
+     */
+    public void visit(BiConsumer<Object, Node> consumer) {
+        CommentedConfigurationNode backing = backing();
+        if (backing.hasMapChildren()) {
+            Node cursor = child(backing);
+            for (Map.Entry<Object, ? extends CommentedConfigurationNode> e : backing.getChildrenMap().entrySet()) {
+                cursor.setNode(e.getValue());
+                consumer.accept(e.getKey(), cursor);
+            }
+        }
+    }
+
+    /**
+     * Get a cached handle to the named value of this node
+     */
+    public BooleanKey key(String key, boolean def) {
+        return new BooleanKey(this, key, def);
+    }
+
+    /**
+     * Get a cached handle to the named value of this node
+     */
+    public DoubleKey key(String key, double def) {
+        return new DoubleKey(this, key, def);
+    }
+
+    /**
+     * Get a cached handle to the named value of this node
+     */
+    public IntKey key(String key, int def) {
+        return new IntKey(this, key, def);
+    }
+
+    /**
+     * Get a cached handle to the named value of this node
+     */
+    public LongKey key(String key, long def) {
+        return new LongKey(this, key, def);
+    }
+
+    /**
+     * Get a cached handle to the named value of this node
+     */
+    public ConfigKey<String> key(String key, String def) {
+        return new ConfigKey<>(this, key, node -> node.get(def));
+    }
+
+    /**
+     * Get a cached handle to the named value of this node
+     */
+    public <T extends Enum<T>> ConfigKey<T> key(String key, T def) {
+        return new ConfigKey<>(this, key, node -> node.get(def));
+    }
+
+    /**
+     * Get a cached handle to the named value of this node
+     */
+    public <T> ConfigKey<T> key(String key, Deserializable<T> def) {
+        return new ConfigKey<>(this, key, node -> node.get(def));
+    }
+
+    /**
+     * Get a cached handle to the named value of this node
+     */
+    public <T> ConfigKey<T> key(String key, TypeToken<T> token, T def) {
+        return new ConfigKey<>(this, key, node -> node.get(token, def));
+    }
+
+    /**
+     * Take an immutable snapshot of the values under this node
+     */
+    public FrozenNode freeze() {
+        return FrozenNode.of(backing());
+    }
+
     public Node node(Object path) {
-        return create(backing().getNode(path));
+        return child(resolve(path));
     }
 
     /**
      * Get the child node at the path
      */
     public Node node(Object... path) {
-        return create(backing().getNode(path));
+        return child(resolve(path));
     }
 
     /**
-     * Put all key/value elements to this Map-backed node (adds to the current Map)
+     * Listen for changes to the child node at the path, or any of its parents or children,
+     * made through Node methods or Config reloads.
+     * Listeners are called on the thread that made the change.
      */
-    public void putAll(Map<Object, ?> map) {
-        Map<Object, CommentedConfigurationNode> newMap = new HashMap<>(backing().getChildrenMap());
-        for (Map.Entry<Object, ?> e : map.entrySet()) {
-            Object key = e.getKey();
-            Object value = e.getValue();
+    public Subscription onChange(Listener listener, Object... path) {
+        return onChange((Executor) null, listener, path);
+    }
 
-            if (value instanceof CommentedConfigurationNode) {
-                newMap.put(key, (CommentedConfigurationNode) value);
-                continue;
-            }
+    /**
+     * Listen for changes to the child node at the path, or any of its parents or children,
+     * made through Node methods or Config reloads.
+     * Listeners are called using the given executor, or on the thread that made the change if it is null.
+     */
+    public Subscription onChange(Executor executor, Listener listener, Object... path) {
+        return tracker.subscribe(absolute(path), executor, listener);
+    }
 
-            Node node;
-            if (value instanceof Node) {
-                node = (Node) value;
-            } else if (value instanceof Serializable) {
-                node = Node.create();
-                ((Serializable) value).toNode(node);
-            } else {
-                try {
-                    node = Node.create().set(value);
-                } catch (IllegalArgumentException iae) {
-                    continue;
+    /**
+     * The absolute path of the child at the given path. Dotted String keys are split into
+     * segments wherever find(..) would read them as paths, so the result matches reported changes.
+     */
+    Object[] absolute(Object... path) {
+        CommentedConfigurationNode current = raw();
+        List<Object> absolute = new ArrayList<>(Arrays.asList(Tracker.path(current)));
+        if (path.length > 0) {
+            // loads the entry if it is still deferred, so the key checks below see it
+            resolve(path[0]);
+            String[] segments = segments(path[0]);
+            if (segments != null) {
+                resolve(segments[0]);
+            }
+        }
+        for (Object key : path) {
+            String[] segments = current.getNode(key).isVirtual() ? segments(key) : null;
+            if (segments != null && !current.getNode((Object[]) segments).isVirtual()) {
+                for (String segment : segments) {
+                    absolute.add(segment);
+                    current = current.getNode(segment);
                 }
+            } else {
+                absolute.add(key);
+                current = current.getNode(key);
             }
-            newMap.put(key, node.backing());
         }
-        backing().setValue(newMap);
+        return absolute.toArray();
     }
 
     /**
-     * Set the named value of this node
+     * Put all key/value elements to this Map-backed node (puts to the current Map in place, preserving order)
+     */
+    public void putAll(Map<Object, ?> map) {
+        CommentedConfigurationNode backing = backing();
+        for (Map.Entry<Object, ?> e : map.entrySet()) {
+            Object element = element(e.getValue());
+            if (element != null) {
+                backing.getNode(e.getKey()).setValue(element);
+            }
+        }
+        tracker.changed(backing);
+    }
+
+    /**
+     * Set the named value of this node. The key is used literally, even if it contains '.'
      */
     public Node set(String key, Object value) {
-        backing().getNode(key).setValue(value);
+        CommentedConfigurationNode child = resolve(key);
+        child.setValue(value);
+        tracker.changed(child);
+        return this;
+    }
+
+    /**
+     * Set the named value of this node using the TypeSerializer registered for the given type
+     */
+    public <T> Node set(String key, TypeToken<T> token, T value) {
+        node(key).set(token, value);
+        return this;
+    }
+
+    /**
+     * Set the value of this node using the TypeSerializer registered for the given type
+     */
+    public <T> Node set(TypeToken<T> token, T value) {
+        CommentedConfigurationNode backing = backing();
+        try {
+            backing.setValue(token, value);
+        } catch (ObjectMappingException e) {
+            throw new IllegalArgumentException(e);
+        }
+        tracker.changed(backing);
         return this;
     }
 
     public <T extends Enum<T>> Node set(String key, T enumeration) {
-        backing().getNode(key).setValue(enumeration.toString());
+        CommentedConfigurationNode child = resolve(key);
+        child.setValue(enumeration.toString());
+        tracker.changed(child);
         return this;
     }
 
@@ -483,7 +825,9 @@ public class Node {
      * Set the value of this node
      */
     public Node set(Object value) {
-        backing().setValue(value);
+        CommentedConfigurationNode backing = backing();
+        backing.setValue(value);
+        tracker.changed(backing);
         return this;
     }
 
@@ -491,7 +835,9 @@ public class Node {
      * Set the value of this node
      */
     public <T extends Enum<T>> Node set(T enumeration) {
-        backing().setValue(enumeration.toString());
+        CommentedConfigurationNode backing = backing();
+        backing.setValue(enumeration.toString());
+        tracker.changed(backing);
         return this;
     }
 
@@ -503,6 +849,70 @@ public class Node {
         return this;
     }
 
+    /**
+     * Set the named Node's value to a List of the given ints
+     */
+    public Node set(String key, int[] values) {
+        node(key).set(values);
+        return this;
+    }
+
+    /**
+     * Set this Node's value to a List of the given ints
+     */
+    public Node set(int[] values) {
+        Object[] list = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            list[i] = values[i];
+        }
+        return setElements(list);
+    }
+
+    /**
+     * Set the named Node's value to a List of the given longs
+     */
+    public Node set(String key, long[] values) {
+        node(key).set(values);
+        return this;
+    }
+
+    /**
+     * Set this Node's value to a List of the given longs
+     */
+    public Node set(long[] values) {
+        Object[] list = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            list[i] = values[i];
+        }
+        return setElements(list);
+    }
+
+    /**
+     * Set the named Node's value to a List of the given doubles
+     */
+    public Node set(String key, double[] values) {
+        node(key).set(values);
+        return this;
+    }
+
+    /**
+     * Set this Node's value to a List of the given doubles
+     */
+    public Node set(double[] values) {
+        Object[] list = new Object[values.length];
+        for (int i = 0; i < values.length; i++) {
+            list[i] = values[i];
+        }
+        return setElements(list);
+    }
+
+    private Node setElements(Object[] elements) {
+        CommentedConfigurationNode backing = backing();
+        backing.setValue(Arrays.asList(elements));
+        tracker.changed(backing);
+        return this;
+    }
+
     /**
      * Set the named Node's value to the given List
      */
@@ -515,29 +925,16 @@ public class Node {
      * Set this Node's value to the given List
      */
     public Node set(List<?> values) {
-        List<CommentedConfigurationNode> list = new ArrayList<>(values.size());
+        List<Object> list = new ArrayList<>(values.size());
         for (Object value : values) {
-            Node node;
-            if (value instanceof CommentedConfigurationNode) {
-                list.add((CommentedConfigurationNode) value);
-                continue;
-            }
-
-            if (value instanceof Node) {
-                node = (Node) value;
-            } else if (value instanceof Serializable) {
-                node = Node.create();
-                ((Serializable) value).toNode(node);
-            } else {
-                try {
-                    node = Node.create().set(value);
-                } catch (IllegalArgumentException iae) {
-                    continue;
-                }
+            Object element = element(value);
+            if (element != null) {
+                list.add(element);
             }
-            list.add(node.backing());
         }
-        backing().setValue(list);
+        CommentedConfigurationNode backing = backing();
+        backing.setValue(list);
+        tracker.changed(backing);
         return this;
     }
 
@@ -553,34 +950,16 @@ public class Node {
      * Set this Node's value to the given Map
      */
     public Node set(Map<Object, ?> map) {
-        Map<Object, CommentedConfigurationNode> newMap = new LinkedHashMap<>();
-
+        Map<Object, Object> newMap = new LinkedHashMap<>(map.size());
         for (Map.Entry<Object, ?> e : map.entrySet()) {
-            Object key = e.getKey();
-            Object value = e.getValue();
-            if (value instanceof CommentedConfigurationNode) {
-                newMap.put(key, (CommentedConfigurationNode) value);
-                continue;
+            Object element = element(e.getValue());
+            if (element != null) {
+                newMap.put(e.getKey(), element);
             }
-
-            Node node;
-            if (value instanceof Node) {
-                node = (Node) value;
-            } else if (value instanceof Serializable) {
-                node = Node.create();
-                ((Serializable) value).toNode(node);
-            } else {
-                try {
-                    node = Node.create();
-                    node.set(value);
-                } catch (IllegalArgumentException iae) {
-                    continue;
-                }
-            }
-            newMap.put(key, node.backing());
         }
-
-        backing().setValue(newMap);
+        CommentedConfigurationNode backing = backing();
+        backing.setValue(newMap);
+        tracker.changed(backing);
         return this;
     }
 
@@ -590,6 +969,200 @@ public class Node {
         return value != null ? value.toString() : "empty";
     }
 
+    // Configurate writes the default back to the node when the value is missing or can't be converted,
+    // which must be reported so that the config is saved with the default. The conversion is done here so
+    // that a fallback to the default is known exactly, without reading the node's value a second time
+    private boolean read(CommentedConfigurationNode node, boolean def) {
+        Boolean value = node.getValue(Types::asBoolean);
+        return value != null ? value : storeDefault(node, def);
+    }
+
+    private float read(CommentedConfigurationNode node, float def) {
+        Float value = node.getValue(Types::asFloat);
+        return value != null ? value : storeDefault(node, def);
+    }
+
+    private double read(CommentedConfigurationNode node, double def) {
+        Double value = node.getValue(Types::asDouble);
+        return value != null ? value : storeDefault(node, def);
+    }
+
+    private int read(CommentedConfigurationNode node, int def) {
+        Integer value = node.getValue(Types::asInt);
+        return value != null ? value : storeDefault(node, def);
+    }
+
+    private long read(CommentedConfigurationNode node, long def) {
+        Long value = node.getValue(Types::asLong);
+        return value != null ? value : storeDefault(node, def);
+    }
+
+    private String read(CommentedConfigurationNode node, String def) {
+        String value = node.getValue(Types::asString);
+        return value != null ? value : storeDefault(node, def);
+    }
+
+    /**
+     * Convert a List/Map element to a value that can be set on a node, or null if it isn't supported
+     */
+    private static Object element(Object value) {
+        if (value instanceof CommentedConfigurationNode) {
+            return value;
+        }
+        if (value instanceof Node) {
+            return ((Node) value).backing();
+        }
+        Node node = Node.create();
+        if (value instanceof Serializable) {
+            ((Serializable) value).toNode(node);
+            return node.backing();
+        }
+        try {
+            return node.set(value).backing();
+        } catch (IllegalArgumentException iae) {
+            return null;
+        }
+    }
+
+    private static int toInt(Object value) {
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        return (int) toLong(value);
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Number) {
+            double d = ((Number) value).doubleValue();
+            return d == Math.floor(d) ? (long) d : 0L;
+        }
+        if (value != null) {
+            try {
+                return Long.parseLong(value.toString());
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return 0L;
+    }
+
+    private static double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (value != null) {
+            try {
+                return Double.parseDouble(value.toString());
+            } catch (NumberFormatException ignored) {
+            }
+        }
+        return 0D;
+    }
+
+    /**
+     * Write the default to the node, as Configurate would, if the node's options copy defaults
+     */
+    private <T> T storeDefault(CommentedConfigurationNode node, T def) {
+        if (def != null && node.getOptions().shouldCopyDefaults()) {
+            node.setValue(def);
+            tracker.changed(node);
+        }
+        return def;
+    }
+
+    private void defaulted(CommentedConfigurationNode node, boolean virtual) {
+        if (virtual && !node.isVirtual()) {
+            tracker.changed(node);
+        }
+    }
+
+    /**
+     * Get the backing node of the child under the literal key
+     */
+    CommentedConfigurationNode resolve(Object key) {
+        return node.getNode(key);
+    }
+
+    /**
+     * Get the backing node to read the key from: the child under the literal key if it exists, otherwise
+     * the child at the dotted path if it exists, otherwise the (virtual) child under the literal key
+     */
+    private CommentedConfigurationNode find(String key) {
+        CommentedConfigurationNode child = resolve(key);
+        if (child.isVirtual()) {
+            String[] segments = segments(key);
+            if (segments != null) {
+                CommentedConfigurationNode nested = lookup(key, segments);
+                if (!nested.isVirtual()) {
+                    return nested;
+                }
+            }
+        }
+        return child;
+    }
+
+    /**
+     * Look up the dotted path in this node's path index, walking the tree on a miss.
+     * The index is discarded whenever the tree has been modified since it was created.
+     */
+    private CommentedConfigurationNode lookup(String path, String[] segments) {
+        long version = tracker.version.get();
+        CommentedConfigurationNode root = node;
+        PathIndex index = this.index;
+        if (index == null || index.version != version || index.root != root) {
+            this.index = index = new PathIndex(root, version);
+        }
+        CommentedConfigurationNode child = index.nodes.get(path);
+        if (child == null) {
+            child = resolve((Object[]) segments);
+            if (!child.isVirtual()) {
+                index.nodes.put(path, child);
+            }
+        }
+        return child;
+    }
+
+    /**
+     * Get the backing node of the child at the path
+     */
+    CommentedConfigurationNode resolve(Object... path) {
+        return backing().getNode(path);
+    }
+
+    /**
+     * The segments of a dotted path key, or null if the key is not a String containing '.' or has empty segments
+     */
+    private static String[] segments(Object key) {
+        if (!(key instanceof String) || ((String) key).indexOf('.') < 0) {
+            return null;
+        }
+        String[] segments = ((String) key).split("\\.", -1);
+        for (String segment : segments) {
+            if (segment.isEmpty()) {
+                return null;
+            }
+        }
+        return segments;
+    }
+
+    private Node child(CommentedConfigurationNode node) {
+        return new Node(node, tracker);
+    }
+
+    private static final class PathIndex {
+
+        private final CommentedConfigurationNode root;
+        private final long version;
+        private final Map<String, CommentedConfigurationNode> nodes = new ConcurrentHashMap<>();
+
+        private PathIndex(CommentedConfigurationNode root, long version) {
+            this.root = root;
+            this.version = version;
+        }
+    }
+
     /**
      * Create an empty Node
      */
@@ -632,6 +1205,30 @@ public class Node {
         T fromNode(Node node);
     }
 
+    /**
+     * Receives the changes made to a Node tree
+     */
+    public interface Listener {
+
+        /**
+         * Called once per change or reload with the affected paths
+         *
+         * @param changes the changed paths that overlap the listener's path
+         */
+        void onChange(ChangeSet changes);
+    }
+
+    /**
+     * A registered Listener
+     */
+    public interface Subscription {
+
+        /**
+         * Stop the listener from receiving further changes
+         */
+        void cancel();
+    }
+
     /**
      * A value that can be serialized and de-serialized to/from a Node
      *
@@ -0,0 +1,151 @@
+package me.dags.config;
+
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.loader.ConfigurationLoader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.CRC32;
+
+/**
+ * A cache of binary snapshots of parsed configs, keyed by the source file's path, size, modified time
+ * and content hash. A snapshot is used when the file's size and modified time match it; the content is only
+ * hashed when the modified time differs (ie the file was touched or copied without being changed).
+ *
+ * @author dags <dags@dags.me>
+ */
+final class Snapshots {
+
+    private static final int MAGIC = 0x43464753;
+    private static final int VERSION = 1;
+
+    private static volatile Path dir = null;
+
+    private Snapshots() {
+
+    }
+
+    static void setDirectory(Path directory) {
+        dir = directory == null ? null : directory.toAbsolutePath();
+    }
+
+    /**
+     * Load the config's tree from its snapshot if it is current, otherwise parse the file and store a new snapshot.
+     * Returns null if snapshots are disabled or the file cannot be parsed.
+     */
+    static CommentedConfigurationNode load(ConfigurationLoader<CommentedConfigurationNode> loader, Path path) {
+        Path dir = Snapshots.dir;
+        if (dir == null || !Files.exists(path)) {
+            return null;
+        }
+
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long size = attributes.size();
+            long modified = attributes.lastModifiedTime().toMillis();
+            Path snapshot = dir.resolve(name(path));
+
+            CommentedConfigurationNode root = decode(loader, snapshot, path, size, modified);
+            if (root != null) {
+                return root;
+            }
+
+            root = loader.load();
+            encode(root, snapshot, path, size, modified, hash(path));
+            return root;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private static CommentedConfigurationNode decode(ConfigurationLoader<CommentedConfigurationNode> loader, Path snapshot, Path path, long size, long modified) {
+        if (!Files.exists(snapshot)) {
+            return null;
+        }
+
+        try {
+            // read onto the heap rather than mapped, so the snapshot can be replaced while the tree is in use
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+            if (buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                return null;
+            }
+            if (!Binary.readString(buffer).equals(path.toString())) {
+                return null;
+            }
+            long snapshotSize = buffer.getLong();
+            long snapshotModified = buffer.getLong();
+            long snapshotHash = buffer.getLong();
+            if (snapshotSize != size || (snapshotModified != modified && snapshotHash != hash(path))) {
+                return null;
+            }
+
+            CommentedConfigurationNode root = loader.createEmptyNode();
+            Binary.read(buffer, root);
+            if (snapshotModified != modified) {
+                // restamp so the next load of the unchanged file can skip the hash again
+                try {
+                    encode(root, snapshot, path, size, modified, snapshotHash);
+                } catch (IOException ignored) {
+                }
+            }
+            return root;
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    private static void encode(CommentedConfigurationNode root, Path snapshot, Path path, long size, long modified, long hash) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE - 8, size + 64));
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        Binary.writeString(out, path.toString());
+        out.writeLong(size);
+        out.writeLong(modified);
+        out.writeLong(hash);
+        Binary.write(out, root);
+        out.flush();
+
+        Files.createDirectories(snapshot.getParent());
+        Path temp = snapshot.resolveSibling(snapshot.getFileName() + "." + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+        try {
+            Files.write(temp, bytes.toByteArray(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            try {
+                Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    private static String name(Path path) {
+        CRC32 crc = new CRC32();
+        crc.update(path.toString().getBytes(StandardCharsets.UTF_8));
+        String name = path.getFileName().toString();
+        return name + "-" + Long.toHexString(crc.getValue()) + ".bin";
+    }
+
+    /**
+     * The CRC32 of the file's content
+     */
+    static long hash(Path path) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = Files.newInputStream(path)) {
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+}
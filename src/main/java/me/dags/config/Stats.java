@@ -0,0 +1,102 @@
+package me.dags.config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dispatches to the registered Metrics listeners. Each call is a single volatile read when none are registered.
+ *
+ * @author dags <dags@dags.me>
+ */
+final class Stats {
+
+    private static final Metrics[] NONE = new Metrics[0];
+    private static volatile Metrics[] listeners = NONE;
+
+    private Stats() {
+
+    }
+
+    static synchronized void add(Metrics metrics) {
+        Metrics[] current = listeners;
+        Metrics[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = metrics;
+        listeners = next;
+    }
+
+    static synchronized void remove(Metrics metrics) {
+        List<Metrics> next = new ArrayList<>(Arrays.asList(listeners));
+        if (next.remove(metrics)) {
+            listeners = next.isEmpty() ? NONE : next.toArray(new Metrics[next.size()]);
+        }
+    }
+
+    /**
+     * The start time of a measured operation, or 0 if nothing is listening
+     */
+    static long start() {
+        return listeners.length > 0 ? System.nanoTime() : 0L;
+    }
+
+    static void read(Path path, long start) {
+        if (start == 0L) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = size(path);
+        for (Metrics metrics : listeners) {
+            metrics.read(path, nanos, bytes);
+        }
+    }
+
+    static void write(Path path, long start) {
+        if (start == 0L) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        long bytes = size(path);
+        for (Metrics metrics : listeners) {
+            metrics.write(path, nanos, bytes);
+        }
+    }
+
+    static void bind(Class<?> type, long start) {
+        if (start == 0L) {
+            return;
+        }
+        long nanos = System.nanoTime() - start;
+        for (Metrics metrics : listeners) {
+            metrics.bind(type, nanos);
+        }
+    }
+
+    static void reload(Path path) {
+        for (Metrics metrics : listeners) {
+            metrics.reload(path);
+        }
+    }
+
+    static void parseFailure(Path path, Throwable error) {
+        for (Metrics metrics : listeners) {
+            metrics.parseFailure(path, error);
+        }
+    }
+
+    static void writeFailure(Path path, Throwable error) {
+        for (Metrics metrics : listeners) {
+            metrics.writeFailure(path, error);
+        }
+    }
+
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return -1L;
+        }
+    }
+}
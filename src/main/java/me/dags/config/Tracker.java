@@ -0,0 +1,365 @@
+package me.dags.config;
+
+import ninja.leaping.configurate.ConfigurationNode;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Records changes to a Node tree and dispatches them to subscribed listeners.
+ * Shared by every Node wrapper obtained from the same root.
+ *
+ * @author dags <dags@dags.me>
+ */
+final class Tracker {
+
+    private static final Subscription[] NONE = new Subscription[0];
+    private static final Object[] ROOT = new Object[0];
+
+    private final ThreadLocal<Set<List<Object>>> batch = new ThreadLocal<>();
+    private volatile Subscription[] subscriptions = NONE;
+    volatile Node root;
+    volatile boolean dirty = false;
+    final AtomicLong version = new AtomicLong();
+
+    /**
+     * Subscribe the listener to changes affecting the given absolute path
+     */
+    synchronized Node.Subscription subscribe(Object[] path, Executor executor, Node.Listener listener) {
+        Subscription subscription = new Subscription(path, executor, listener);
+        Subscription[] current = subscriptions;
+        Subscription[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = subscription;
+        subscriptions = next;
+        return subscription;
+    }
+
+    /**
+     * Mark the tree as modified and notify listeners that the node (or the child under the given key) was modified
+     */
+    void changed(ConfigurationNode node, Object... keys) {
+        dirty = true;
+        version.incrementAndGet();
+        if (subscriptions.length == 0) {
+            return;
+        }
+        Object[] path = path(node);
+        if (keys.length > 0) {
+            Object[] child = Arrays.copyOf(path, path.length + keys.length);
+            System.arraycopy(keys, 0, child, path.length, keys.length);
+            path = child;
+        }
+        changed(Collections.singletonList(path));
+    }
+
+    /**
+     * Notify listeners that the node tree was replaced
+     */
+    void replaced(ConfigurationNode previous, ConfigurationNode current) {
+        version.incrementAndGet();
+        if (subscriptions.length == 0) {
+            return;
+        }
+        List<Object[]> paths = new ArrayList<>();
+        diff(previous, current, new ArrayList<>(), paths);
+        changed(paths);
+    }
+
+    /**
+     * Apply the edits, holding back notifications until they complete and then dispatching them as a single ChangeSet
+     */
+    void batch(Runnable edits) {
+        batch(() -> {
+            edits.run();
+            return null;
+        });
+    }
+
+    /**
+     * Apply the edits, holding back notifications until they complete and then dispatching them as a single ChangeSet
+     */
+    <T> T batch(Supplier<T> edits) {
+        if (batch.get() != null) {
+            return edits.get();
+        }
+        Set<List<Object>> pending = new LinkedHashSet<>();
+        batch.set(pending);
+        try {
+            return edits.get();
+        } finally {
+            batch.remove();
+            List<Object[]> paths = new ArrayList<>(pending.size());
+            for (List<Object> path : pending) {
+                paths.add(path.toArray());
+            }
+            changed(paths);
+        }
+    }
+
+    /**
+     * Dispatch the changed paths to each listener whose path overlaps them
+     */
+    void changed(List<Object[]> paths) {
+        if (paths.isEmpty()) {
+            return;
+        }
+        Set<List<Object>> pending = batch.get();
+        if (pending != null) {
+            for (Object[] path : paths) {
+                pending.add(Arrays.asList(path));
+            }
+            return;
+        }
+        for (Subscription subscription : subscriptions) {
+            List<Object[]> matched = null;
+            for (Object[] path : paths) {
+                if (ChangeSet.overlaps(path, subscription.path)) {
+                    if (matched == null) {
+                        matched = new ArrayList<>();
+                    }
+                    matched.add(path);
+                }
+            }
+            if (matched != null) {
+                subscription.dispatch(new ChangeSet(matched));
+            }
+        }
+    }
+
+    private synchronized void unsubscribe(Subscription subscription) {
+        Subscription[] current = subscriptions;
+        List<Subscription> next = new ArrayList<>(Arrays.asList(current));
+        if (next.remove(subscription)) {
+            subscriptions = next.isEmpty() ? NONE : next.toArray(new Subscription[next.size()]);
+        }
+    }
+
+    /**
+     * Get the node at the absolute path within the tree's current root, so the result follows reloads
+     */
+    Node node(Object[] path) {
+        Node root = this.root;
+        Object[] base = path(root.raw());
+        return root.node(Arrays.copyOfRange(path, base.length, path.length));
+    }
+
+    /**
+     * The absolute path of the node from the root of its tree
+     */
+    static Object[] path(ConfigurationNode node) {
+        if (node.getParent() == null) {
+            return ROOT;
+        }
+        Deque<Object> path = new ArrayDeque<>();
+        for (ConfigurationNode n = node; n.getParent() != null; n = n.getParent()) {
+            path.addFirst(n.getKey());
+        }
+        return path.toArray();
+    }
+
+    /**
+     * Collect the paths of all values that differ between the two trees
+     */
+    static void diff(ConfigurationNode a, ConfigurationNode b, List<Object> path, List<Object[]> changes) {
+        if (a.hasMapChildren() && b.hasMapChildren()) {
+            Map<Object, ? extends ConfigurationNode> left = a.getChildrenMap();
+            Map<Object, ? extends ConfigurationNode> right = b.getChildrenMap();
+            for (Map.Entry<Object, ? extends ConfigurationNode> e : left.entrySet()) {
+                path.add(e.getKey());
+                ConfigurationNode other = right.get(e.getKey());
+                if (other == null) {
+                    changes.add(path.toArray());
+                } else {
+                    diff(e.getValue(), other, path, changes);
+                }
+                path.remove(path.size() - 1);
+            }
+            for (Object key : right.keySet()) {
+                if (!left.containsKey(key)) {
+                    path.add(key);
+                    changes.add(path.toArray());
+                    path.remove(path.size() - 1);
+                }
+            }
+            return;
+        }
+
+        if (a.hasListChildren() && b.hasListChildren()) {
+            List<? extends ConfigurationNode> left = a.getChildrenList();
+            List<? extends ConfigurationNode> right = b.getChildrenList();
+            if (left.size() != right.size()) {
+                changes.add(path.toArray());
+                return;
+            }
+            for (int i = 0; i < left.size(); i++) {
+                path.add(i);
+                diff(left.get(i), right.get(i), path, changes);
+                path.remove(path.size() - 1);
+            }
+            return;
+        }
+
+        if (a.hasMapChildren() || b.hasMapChildren() || a.hasListChildren() || b.hasListChildren()) {
+            changes.add(path.toArray());
+            return;
+        }
+
+        if (!Objects.equals(a.getValue(), b.getValue())) {
+            changes.add(path.toArray());
+        }
+    }
+
+    /**
+     * Merge the values of 'source' into 'target' in place, keeping the target's existing child nodes
+     * wherever they are still present, and collect the paths of all values that were changed
+     */
+    static void merge(CommentedConfigurationNode target, CommentedConfigurationNode source, List<Object> path, List<Object[]> changes) {
+        String comment = source.getComment().orElse(null);
+        if (!Objects.equals(comment, target.getComment().orElse(null))) {
+            target.setComment(comment);
+        }
+
+        if (target.hasMapChildren() && source.hasMapChildren()) {
+            Map<Object, ? extends CommentedConfigurationNode> current = target.getChildrenMap();
+            Map<Object, ? extends CommentedConfigurationNode> next = source.getChildrenMap();
+            for (Object key : current.keySet()) {
+                if (!next.containsKey(key)) {
+                    target.removeChild(key);
+                    path.add(key);
+                    changes.add(path.toArray());
+                    path.remove(path.size() - 1);
+                }
+            }
+            for (Map.Entry<Object, ? extends CommentedConfigurationNode> e : next.entrySet()) {
+                path.add(e.getKey());
+                CommentedConfigurationNode child = current.get(e.getKey());
+                if (child == null) {
+                    CommentedConfigurationNode added = target.getNode(e.getKey());
+                    added.setValue(e.getValue());
+                    copyComments(e.getValue(), added);
+                    changes.add(path.toArray());
+                } else {
+                    merge(child, e.getValue(), path, changes);
+                }
+                path.remove(path.size() - 1);
+            }
+            return;
+        }
+
+        if (target.hasListChildren() && source.hasListChildren()) {
+            List<? extends CommentedConfigurationNode> current = target.getChildrenList();
+            List<? extends CommentedConfigurationNode> next = source.getChildrenList();
+            if (current.size() != next.size()) {
+                target.setValue(source);
+                copyComments(source, target);
+                changes.add(path.toArray());
+                return;
+            }
+            for (int i = 0; i < current.size(); i++) {
+                path.add(i);
+                merge(current.get(i), next.get(i), path, changes);
+                path.remove(path.size() - 1);
+            }
+            return;
+        }
+
+        if (target.hasMapChildren() || source.hasMapChildren() || target.hasListChildren() || source.hasListChildren()) {
+            target.setValue(source);
+            copyComments(source, target);
+            changes.add(path.toArray());
+            return;
+        }
+
+        if (!Objects.equals(target.getValue(), source.getValue())) {
+            target.setValue(source.getValue());
+            changes.add(path.toArray());
+        }
+    }
+
+    /**
+     * Check if the two trees hold the same values and comments
+     */
+    static boolean same(CommentedConfigurationNode a, CommentedConfigurationNode b) {
+        List<Object[]> changes = new ArrayList<>();
+        diff(a, b, new ArrayList<>(), changes);
+        return changes.isEmpty() && sameComments(a, b);
+    }
+
+    private static boolean sameComments(CommentedConfigurationNode a, CommentedConfigurationNode b) {
+        if (!Objects.equals(a.getComment().orElse(null), b.getComment().orElse(null))) {
+            return false;
+        }
+        if (a.hasMapChildren()) {
+            Map<Object, ? extends CommentedConfigurationNode> other = b.getChildrenMap();
+            for (Map.Entry<Object, ? extends CommentedConfigurationNode> e : a.getChildrenMap().entrySet()) {
+                if (!sameComments(e.getValue(), other.get(e.getKey()))) {
+                    return false;
+                }
+            }
+        } else if (a.hasListChildren()) {
+            List<? extends CommentedConfigurationNode> other = b.getChildrenList();
+            List<? extends CommentedConfigurationNode> children = a.getChildrenList();
+            for (int i = 0; i < children.size(); i++) {
+                if (!sameComments(children.get(i), other.get(i))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copy the comments of every node in 'source' onto the matching node in 'target', which must hold
+     * the same structure (ie after target.setValue(source), which copies values but not comments)
+     */
+    static void copyComments(CommentedConfigurationNode source, CommentedConfigurationNode target) {
+        source.getComment().ifPresent(target::setComment);
+        if (source.hasMapChildren()) {
+            for (Map.Entry<Object, ? extends CommentedConfigurationNode> e : source.getChildrenMap().entrySet()) {
+                copyComments(e.getValue(), target.getNode(e.getKey()));
+            }
+        } else if (source.hasListChildren()) {
+            List<? extends CommentedConfigurationNode> children = source.getChildrenList();
+            for (int i = 0; i < children.size(); i++) {
+                copyComments(children.get(i), target.getNode(i));
+            }
+        }
+    }
+
+    private final class Subscription implements Node.Subscription {
+
+        private final Object[] path;
+        private final Executor executor;
+        private final Node.Listener listener;
+
+        private Subscription(Object[] path, Executor executor, Node.Listener listener) {
+            this.path = path;
+            this.executor = executor;
+            this.listener = listener;
+        }
+
+        /**
+         * Deliver the changes to the listener. Failures are reported rather than thrown so that the
+         * change that triggered them stands and every other subscriber is still notified.
+         */
+        private void dispatch(ChangeSet changes) {
+            try {
+                if (executor == null) {
+                    listener.onChange(changes);
+                } else {
+                    executor.execute(() -> listener.onChange(changes));
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            unsubscribe(this);
+        }
+    }
+}
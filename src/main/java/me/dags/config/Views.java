@@ -0,0 +1,110 @@
+package me.dags.config;
+
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Read-only views over a node's children that wrap each child as it is accessed
+ *
+ * @author dags <dags@dags.me>
+ */
+final class Views {
+
+    private Views() {
+
+    }
+
+    static List<Node> list(List<? extends CommentedConfigurationNode> children, Function<CommentedConfigurationNode, Node> wrapper) {
+        return new ChildList(children, wrapper);
+    }
+
+    static Map<Object, Node> map(Map<Object, ? extends CommentedConfigurationNode> children, Function<CommentedConfigurationNode, Node> wrapper) {
+        return new ChildMap(children, wrapper);
+    }
+
+    private static final class ChildList extends AbstractList<Node> implements RandomAccess {
+
+        private final List<? extends CommentedConfigurationNode> children;
+        private final Function<CommentedConfigurationNode, Node> wrapper;
+
+        private ChildList(List<? extends CommentedConfigurationNode> children, Function<CommentedConfigurationNode, Node> wrapper) {
+            this.children = children;
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public Node get(int index) {
+            return wrapper.apply(children.get(index));
+        }
+
+        @Override
+        public int size() {
+            return children.size();
+        }
+    }
+
+    private static final class ChildMap extends AbstractMap<Object, Node> {
+
+        private final Map<Object, ? extends CommentedConfigurationNode> children;
+        private final Function<CommentedConfigurationNode, Node> wrapper;
+        private Set<Entry<Object, Node>> entries;
+
+        private ChildMap(Map<Object, ? extends CommentedConfigurationNode> children, Function<CommentedConfigurationNode, Node> wrapper) {
+            this.children = children;
+            this.wrapper = wrapper;
+        }
+
+        @Override
+        public Node get(Object key) {
+            CommentedConfigurationNode child = children.get(key);
+            return child == null ? null : wrapper.apply(child);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return children.containsKey(key);
+        }
+
+        @Override
+        public int size() {
+            return children.size();
+        }
+
+        @Override
+        public Set<Object> keySet() {
+            return Collections.unmodifiableSet(children.keySet());
+        }
+
+        @Override
+        public Set<Entry<Object, Node>> entrySet() {
+            if (entries == null) {
+                entries = new AbstractSet<Entry<Object, Node>>() {
+                    @Override
+                    public Iterator<Entry<Object, Node>> iterator() {
+                        Iterator<? extends Entry<Object, ? extends CommentedConfigurationNode>> iterator = children.entrySet().iterator();
+                        return new Iterator<Entry<Object, Node>>() {
+                            @Override
+                            public boolean hasNext() {
+                                return iterator.hasNext();
+                            }
+
+                            @Override
+                            public Entry<Object, Node> next() {
+                                Entry<Object, ? extends CommentedConfigurationNode> next = iterator.next();
+                                return new SimpleImmutableEntry<>(next.getKey(), wrapper.apply(next.getValue()));
+                            }
+                        };
+                    }
+
+                    @Override
+                    public int size() {
+                        return children.size();
+                    }
+                };
+            }
+            return entries;
+        }
+    }
+}
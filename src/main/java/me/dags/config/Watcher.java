@@ -0,0 +1,247 @@
+package me.dags.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Reloads watched configs when their files change on disk.
+ * A single WatchService and thread serve every watched config; events are debounced per file
+ * and reloads are skipped when the file's size, modified time and content hash are unchanged.
+ *
+ * @author dags <dags@dags.me>
+ */
+final class Watcher implements Runnable {
+
+    private static final long DEBOUNCE_MS = 100L;
+    private static volatile Watcher instance;
+
+    private final WatchService service;
+    private final Map<Path, WatchKey> keys = new HashMap<>();
+    private final Map<Path, List<Watch>> watches = new ConcurrentHashMap<>();
+    private final Map<Path, Long> due = new HashMap<>();
+
+    private Watcher(WatchService service) {
+        this.service = service;
+    }
+
+    /**
+     * Start watching the config's file, calling the listener after each reload
+     */
+    static void watch(Config config, Consumer<Config> listener) {
+        Watcher watcher = get();
+        synchronized (watcher) {
+            Path file = config.path();
+            Path dir = file.getParent();
+            if (!watcher.keys.containsKey(dir)) {
+                try {
+                    Files.createDirectories(dir);
+                    WatchKey key = dir.register(watcher.service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                    watcher.keys.put(dir, key);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            watcher.watches.computeIfAbsent(file, f -> new CopyOnWriteArrayList<>()).add(new Watch(config, listener));
+        }
+    }
+
+    /**
+     * Stop watching the config's file
+     */
+    static void unwatch(Config config) {
+        Watcher watcher = instance;
+        if (watcher == null) {
+            return;
+        }
+        synchronized (watcher) {
+            Path file = config.path();
+            List<Watch> list = watcher.watches.get(file);
+            if (list == null) {
+                return;
+            }
+            list.removeIf(watch -> watch.config == config);
+            if (!list.isEmpty()) {
+                return;
+            }
+            watcher.watches.remove(file);
+            Path dir = file.getParent();
+            for (Path watched : watcher.watches.keySet()) {
+                if (dir.equals(watched.getParent())) {
+                    return;
+                }
+            }
+            WatchKey key = watcher.keys.remove(dir);
+            if (key != null) {
+                key.cancel();
+            }
+        }
+    }
+
+    /**
+     * Record the current state of the config's file so that its own save doesn't trigger a reload of it.
+     * Other configs watching the same file still see the save as a change.
+     */
+    static void touch(Config config) {
+        Watcher watcher = instance;
+        if (watcher == null) {
+            return;
+        }
+        List<Watch> list = watcher.watches.get(config.path());
+        if (list != null) {
+            Stamp stamp = null;
+            for (Watch watch : list) {
+                if (watch.config == config) {
+                    if (stamp == null) {
+                        stamp = Stamp.of(config.path());
+                    }
+                    watch.stamp = stamp;
+                }
+            }
+        }
+    }
+
+    private static synchronized Watcher get() {
+        if (instance == null) {
+            try {
+                instance = new Watcher(FileSystems.getDefault().newWatchService());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            Thread thread = new Thread(instance, "config-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return instance;
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                WatchKey key;
+                if (due.isEmpty()) {
+                    key = service.take();
+                } else {
+                    long wait = Collections.min(due.values()) - System.currentTimeMillis();
+                    key = wait > 0 ? service.poll(wait, TimeUnit.MILLISECONDS) : service.poll();
+                }
+                if (key != null) {
+                    queue(key);
+                }
+                process();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+        }
+    }
+
+    private void queue(WatchKey key) {
+        Path dir = (Path) key.watchable();
+        long time = System.currentTimeMillis() + DEBOUNCE_MS;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                for (Path file : watches.keySet()) {
+                    if (dir.equals(file.getParent())) {
+                        due.put(file, time);
+                    }
+                }
+                continue;
+            }
+            Path file = dir.resolve((Path) event.context());
+            if (watches.containsKey(file)) {
+                due.put(file, time);
+            }
+        }
+        key.reset();
+    }
+
+    private void process() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Path, Long>> iterator = due.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, Long> entry = iterator.next();
+            if (entry.getValue() > now) {
+                continue;
+            }
+            iterator.remove();
+            List<Watch> list = watches.get(entry.getKey());
+            if (list == null) {
+                continue;
+            }
+            for (Watch watch : list) {
+                if (watch.stamp.matches(entry.getKey())) {
+                    continue;
+                }
+                watch.stamp = Stamp.of(entry.getKey());
+                try {
+                    watch.config.reload();
+                    watch.listener.accept(watch.config);
+                } catch (Throwable t) {
+                    // reported per watch so the remaining watches of the file still reload
+                    t.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private static final class Watch {
+
+        private final Config config;
+        private final Consumer<Config> listener;
+        private volatile Stamp stamp;
+
+        private Watch(Config config, Consumer<Config> listener) {
+            this.config = config;
+            this.listener = listener;
+            this.stamp = Stamp.of(config.path());
+        }
+    }
+
+    private static final class Stamp {
+
+        private static final Stamp MISSING = new Stamp(-1L, -1L, -1L);
+
+        private final long size;
+        private final long modified;
+        private final long hash;
+
+        private Stamp(long size, long modified, long hash) {
+            this.size = size;
+            this.modified = modified;
+            this.hash = hash;
+        }
+
+        /**
+         * Check whether the file still matches this stamp, hashing its content only if its attributes changed
+         */
+        private boolean matches(Path path) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.size() != size) {
+                    return false;
+                }
+                return attributes.lastModifiedTime().toMillis() == modified || Snapshots.hash(path) == hash;
+            } catch (IOException e) {
+                return this == MISSING;
+            }
+        }
+
+        private static Stamp of(Path path) {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return new Stamp(attributes.size(), attributes.lastModifiedTime().toMillis(), Snapshots.hash(path));
+            } catch (IOException e) {
+                return MISSING;
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package me.dags.config;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author dags <dags@dags.me>
+ */
+public class AsyncWriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Metrics metrics;
+
+    @After
+    public void removeMetrics() {
+        if (metrics != null) {
+            Config.removeMetrics(metrics);
+        }
+    }
+
+    @Test(timeout = 10000L)
+    public void flushWaitsForRunningWrite() throws Exception {
+        Path path = folder.getRoot().toPath().resolve("slow.conf");
+        Config config = Config.must(path);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        metrics = new Metrics() {
+            @Override
+            public void write(Path written, long nanos, long bytes) {
+                if (written.equals(config.path())) {
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        Config.metrics(metrics);
+
+        config.set("key", "value");
+        CompletableFuture<Boolean> save = AsyncWriter.submit(config, 0L, TimeUnit.MILLISECONDS);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        Thread flush = new Thread(AsyncWriter::flush);
+        flush.start();
+        flush.join(200L);
+        assertTrue("flush returned while a write was running", flush.isAlive());
+        assertFalse(save.isDone());
+
+        release.countDown();
+        flush.join();
+        assertTrue(save.isDone());
+        assertTrue(save.get());
+    }
+}
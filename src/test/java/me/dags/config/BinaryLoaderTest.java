@@ -0,0 +1,88 @@
+package me.dags.config;
+
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.commented.SimpleCommentedConfigurationNode;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author dags <dags@dags.me>
+ */
+public class BinaryLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTrip() throws IOException {
+        CommentedConfigurationNode root = SimpleCommentedConfigurationNode.root();
+        root.getNode("string").setValue("text with unicode \u00e9\u4e2d");
+        root.getNode("int").setValue(Integer.MIN_VALUE);
+        root.getNode("long").setValue(Long.MAX_VALUE);
+        root.getNode("double").setValue(Math.PI);
+        root.getNode("float").setValue(0.5F);
+        root.getNode("true").setValue(true);
+        root.getNode("false").setValue(false);
+        root.getNode("emptyMap").setValue(Collections.emptyMap());
+        root.getNode("emptyList").setValue(Collections.emptyList());
+        root.getNode("list").setValue(Arrays.asList(1, "two", 3L));
+        root.getNode("nested", "key").setValue("value").setComment("a comment");
+
+        CommentedConfigurationNode loaded = roundTrip(root, "config.bin");
+        JsonLoaderTest.assertSame(root, loaded);
+        assertEquals(0.5F, loaded.getNode("float").getValue());
+        assertEquals("a comment", loaded.getNode("nested", "key").getComment().orElse(null));
+    }
+
+    @Test
+    public void replaceAfterLoad() throws IOException {
+        CommentedConfigurationNode root = SimpleCommentedConfigurationNode.root();
+        root.getNode("key").setValue("first");
+        Path path = folder.getRoot().toPath().resolve("replace.bin");
+        Path temp = folder.getRoot().toPath().resolve("replace.bin.tmp");
+        new BinaryLoader(path, path).save(root);
+        new BinaryLoader(path, path).load();
+
+        // the loaded file must not be held open, or replacing it fails on some platforms
+        root.getNode("key").setValue("second");
+        new BinaryLoader(temp, temp).save(root);
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        assertEquals("second", new BinaryLoader(path, path).load().getNode("key").getString());
+    }
+
+    @Test
+    public void legacyHocon() throws IOException {
+        Path path = folder.newFile("legacy.bin").toPath();
+        Files.write(path, "key=value\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals("value", new BinaryLoader(path, path).load().getNode("key").getString());
+    }
+
+    @Test(expected = IOException.class)
+    public void truncated() throws IOException {
+        CommentedConfigurationNode root = SimpleCommentedConfigurationNode.root();
+        root.getNode("key").setValue("a value that will be cut short");
+        Path path = folder.getRoot().toPath().resolve("truncated.bin");
+        new BinaryLoader(path, path).save(root);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 4));
+        new BinaryLoader(path, path).load();
+    }
+
+    private CommentedConfigurationNode roundTrip(CommentedConfigurationNode root, String name) throws IOException {
+        Path path = folder.getRoot().toPath().resolve(name);
+        BinaryLoader loader = new BinaryLoader(path, path);
+        loader.save(root);
+        return loader.load();
+    }
+}
@@ -0,0 +1,103 @@
+package me.dags.config;
+
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.commented.SimpleCommentedConfigurationNode;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author dags <dags@dags.me>
+ */
+public class JsonLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTrip() throws IOException {
+        CommentedConfigurationNode root = SimpleCommentedConfigurationNode.root();
+        root.getNode("string").setValue("plain");
+        root.getNode("escaped").setValue("quote \" backslash \\ newline \n tab \t control \u0001 unicode \u00e9");
+        root.getNode("int").setValue(42);
+        root.getNode("negative").setValue(-7);
+        root.getNode("long").setValue(Long.MAX_VALUE);
+        root.getNode("double").setValue(0.25D);
+        root.getNode("exponent").setValue(1.5E300D);
+        root.getNode("true").setValue(true);
+        root.getNode("false").setValue(false);
+        root.getNode("emptyMap").setValue(Collections.emptyMap());
+        root.getNode("emptyList").setValue(Collections.emptyList());
+        root.getNode("list").setValue(Arrays.asList(1, "two", 3.5D, false));
+        root.getNode("nested", "deeper", "key").setValue("value");
+        root.getNode("nested", "list").getAppendedNode().getNode("inList").setValue(1);
+
+        CommentedConfigurationNode loaded = roundTrip(root);
+        assertSame(root, loaded);
+        assertEquals("quote \" backslash \\ newline \n tab \t control \u0001 unicode \u00e9", loaded.getNode("escaped").getString());
+        assertEquals(Long.MAX_VALUE, loaded.getNode("long").getValue());
+        assertEquals(42, loaded.getNode("int").getValue());
+    }
+
+    @Test
+    public void preservesKeyOrder() throws IOException {
+        CommentedConfigurationNode root = SimpleCommentedConfigurationNode.root();
+        List<String> keys = Arrays.asList("zulu", "alpha", "mike", "bravo");
+        for (String key : keys) {
+            root.getNode(key).setValue(key);
+        }
+        CommentedConfigurationNode loaded = roundTrip(root);
+        assertEquals(keys, new ArrayList<>(loaded.getChildrenMap().keySet()));
+    }
+
+    @Test
+    public void emptyFile() throws IOException {
+        Path path = folder.newFile("empty.json").toPath();
+        CommentedConfigurationNode loaded = new JsonLoader(path, path).load();
+        assertTrue(loaded.isVirtual() || loaded.getValue() == null);
+    }
+
+    @Test(expected = IOException.class)
+    public void malformed() throws IOException {
+        Path path = folder.newFile("malformed.json").toPath();
+        Files.write(path, "{\"key\": [1, 2,".getBytes(StandardCharsets.UTF_8));
+        new JsonLoader(path, path).load();
+    }
+
+    @Test
+    public void legacyHocon() throws IOException {
+        Path path = folder.newFile("legacy.json").toPath();
+        Files.write(path, "# a comment\nkey=value\nsection {\n  number=5\n}\n".getBytes(StandardCharsets.UTF_8));
+        CommentedConfigurationNode loaded = new JsonLoader(path, path).load();
+        assertEquals("value", loaded.getNode("key").getString());
+        assertEquals(5, loaded.getNode("section", "number").getInt(0));
+    }
+
+    private CommentedConfigurationNode roundTrip(CommentedConfigurationNode root) throws IOException {
+        Path path = folder.getRoot().toPath().resolve("config.json");
+        JsonLoader loader = new JsonLoader(path, path);
+        loader.save(root);
+        return loader.load();
+    }
+
+    static void assertSame(CommentedConfigurationNode expected, CommentedConfigurationNode actual) {
+        List<Object[]> changes = new ArrayList<>();
+        Tracker.diff(expected, actual, new ArrayList<>(), changes);
+        List<String> paths = new ArrayList<>();
+        for (Object[] path : changes) {
+            paths.add(Arrays.toString(path));
+        }
+        assertEquals("differing paths", Collections.emptyList(), paths);
+    }
+}